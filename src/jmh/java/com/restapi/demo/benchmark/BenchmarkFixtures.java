@@ -0,0 +1,57 @@
+package com.restapi.demo.benchmark;
+
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.security.Role;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample entities and DTOs shared by the benchmarks, shaped like the rows the API serves.
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 31, 9, 30, 15, 123_456_000);
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoO5rYkDjCs6F8N1mYx9k5uTtbN6ZzC3nG")
+                .role(Role.USER)
+                .build();
+    }
+
+    static Todo todo(long id, User user) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setTitle("Todo number " + id);
+        todo.setDescription("A description long enough to look like something a user would actually type.");
+        todo.setCompleted(id % 3 == 0);
+        todo.setUser(user);
+        todo.setCreatedAt(CREATED_AT);
+        todo.setUpdatedAt(CREATED_AT);
+        return todo;
+    }
+
+    static TodoResponseDto todoResponse(long id, long userId) {
+        return new TodoResponseDto(id, "Todo number " + id,
+                "A description long enough to look like something a user would actually type.",
+                id % 3 == 0, userId, "user" + userId, CREATED_AT, CREATED_AT, 0L);
+    }
+
+    static List<TodoResponseDto> todoResponses(int count) {
+        List<TodoResponseDto> todos = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            todos.add(todoResponse(i, i % 5 + 1));
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,79 @@
+package com.restapi.demo.benchmark;
+
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.user.UserResponseDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.mapper.TodoMapper;
+import com.restapi.demo.mapper.TodoMapperImpl;
+import com.restapi.demo.mapper.UserMapper;
+import com.restapi.demo.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappings on the read and write paths.
+ * todoEntityToResponse vs todoProjectionToResponse compares the old read path (entity, then mapper) with
+ * the constructor projection the repository now uses; it covers the object allocation only, not Hibernate's
+ * row hydration and dirty-checking snapshots, which the projection also avoids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private TodoMapper todoMapper;
+    private UserMapper userMapper;
+
+    private User user;
+    private Todo todo;
+    private TodoRequestDto todoRequestDto;
+
+    @Setup
+    public void setUp() {
+        todoMapper = new TodoMapperImpl();
+        userMapper = new UserMapperImpl();
+
+        user = BenchmarkFixtures.user(7);
+        todo = BenchmarkFixtures.todo(1, user);
+        todoRequestDto = new TodoRequestDto();
+        todoRequestDto.setTitle("Updated title");
+        todoRequestDto.setCompleted(true);
+    }
+
+    @Benchmark
+    public TodoResponseDto todoEntityToResponse() {
+        return todoMapper.toTodoResponseDto(todo);
+    }
+
+    @Benchmark
+    public TodoResponseDto todoProjectionToResponse() {
+        return new TodoResponseDto(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                user.getId(), user.getUsername(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion());
+    }
+
+    @Benchmark
+    public Todo updateTodoFromDto() {
+        todoMapper.updateTodoFromDto(todoRequestDto, todo);
+        return todo;
+    }
+
+    @Benchmark
+    public UserResponseDto userEntityToResponse() {
+        return userMapper.toUserResponseDto(user);
+    }
+}
@@ -0,0 +1,80 @@
+package com.restapi.demo.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restapi.demo.dto.CustomMetadataResponse;
+import com.restapi.demo.dto.PaginatedResponse;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing a page of todos, i.e. what GET /todos does after the query returns.
+ * CustomMetadataResponse builds four page URLs from the request URL, and the Jackson output is
+ * pretty-printed by default (spring.jackson.serialization.indent-output), so both are measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private static final String REQUEST_URL = "http://localhost:8080/api/v1/todos";
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"true", "false"})
+    public boolean indentOutput;
+
+    private Page<TodoResponseDto> page;
+    private PaginatedResponse<TodoResponseDto> response;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        // A page from the middle of the listing, so every navigation URL is present.
+        page = new PageImpl<>(BenchmarkFixtures.todoResponses(pageSize), PageRequest.of(2, pageSize), pageSize * 10L);
+        response = new PaginatedResponse<>(page, UriComponentsBuilder.fromHttpUrl(REQUEST_URL));
+        // Configured like the application's ObjectMapper (see spring.jackson.* in application.properties).
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .indentOutput(indentOutput)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+    }
+
+    @Benchmark
+    public CustomMetadataResponse<TodoResponseDto> buildMetadata() {
+        return new CustomMetadataResponse<>(page, UriComponentsBuilder.fromHttpUrl(REQUEST_URL));
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    // The whole response path: metadata plus serialization.
+    @Benchmark
+    public byte[] buildAndSerializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new PaginatedResponse<>(page, UriComponentsBuilder.fromHttpUrl(REQUEST_URL)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.restapi.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * A thin JSON client for the API that times every call into the given endpoint's stats.
+ * One instance (and so one connection pool) is shared by all load-test clients.
+ */
+class ApiClient {
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        // Tomcat speaks plain HTTP/1.1 here, so skip the h2c upgrade attempt on every connection.
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    JsonNode get(EndpointStats stats, String path, String token) {
+        return send(stats, request(path, token).GET().build());
+    }
+
+    JsonNode post(EndpointStats stats, String path, String token, Object body) {
+        return send(stats, request(path, token).header("Content-Type", "application/json").POST(json(body)).build());
+    }
+
+    JsonNode put(EndpointStats stats, String path, String token, Object body) {
+        return send(stats, request(path, token).header("Content-Type", "application/json").PUT(json(body)).build());
+    }
+
+    JsonNode delete(EndpointStats stats, String path, String token) {
+        return send(stats, request(path, token).DELETE().build());
+    }
+
+    /**
+     * Sends the request and records its latency, or an error for a non-2xx status or an I/O failure.
+     * Returns the parsed body (an empty node for 204), or null if the call failed.
+     */
+    private JsonNode send(EndpointStats stats, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                stats.recordError();
+                return null;
+            }
+            stats.recordSuccess(elapsed);
+            byte[] body = response.body();
+            return body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+        } catch (IOException e) {
+            stats.recordError();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not serialize request body", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.restapi.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and errors of one endpoint. Latencies are recorded in microseconds into an HdrHistogram
+ * Recorder, which the client threads can write to concurrently without locking.
+ */
+class EndpointStats {
+
+    private final String name;
+    private final Recorder recorder = new Recorder(3);
+    private final AtomicLong errors = new AtomicLong();
+
+    private Histogram measured;
+    private long measuredErrors;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void recordSuccess(long elapsedNanos) {
+        recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. during the warmup.
+     */
+    void reset() {
+        recorder.getIntervalHistogram();
+        errors.set(0);
+    }
+
+    /**
+     * Takes everything recorded since the last reset as the measured interval.
+     */
+    void finish() {
+        measured = recorder.getIntervalHistogram();
+        measuredErrors = errors.getAndSet(0);
+    }
+
+    long count() {
+        return measured.getTotalCount();
+    }
+
+    Map<String, Object> toReport(double measuredSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", measured.getTotalCount());
+        report.put("errors", measuredErrors);
+        report.put("throughput_per_sec", round(measured.getTotalCount() / measuredSeconds));
+        report.put("mean_ms", round(measured.getMean() / 1000.0));
+        report.put("p50_ms", percentile(50));
+        report.put("p90_ms", percentile(90));
+        report.put("p99_ms", percentile(99));
+        report.put("p999_ms", percentile(99.9));
+        report.put("max_ms", round(measured.getMaxValue() / 1000.0));
+        return report;
+    }
+
+    double percentile(double percentile) {
+        return round(measured.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.restapi.demo.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load-test run, parsed from "--name=value" arguments.
+ *
+ * @param users    users registered before the run; each client logs in as one of them
+ * @param todos    todos created before the run, spread over the users
+ * @param clients  concurrent HTTP clients, each with its own thread and token
+ * @param warmup   how long the workload runs before recording starts
+ * @param duration how long the workload is recorded
+ * @param label    free-form run label stored in the report (defaults to the git commit)
+ * @param output   the JSON report file
+ */
+record LoadTestOptions(
+        int users,
+        int todos,
+        int clients,
+        Duration warmup,
+        Duration duration,
+        String label,
+        Path output
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Integer.parseInt(values.getOrDefault("todos", "10000")),
+                Integer.parseInt(values.getOrDefault("clients", "16")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                parseDuration(values.getOrDefault("duration", "30s")),
+                values.get("label"),
+                Path.of(values.getOrDefault("output", "target/loadtest/loadtest-" + timestamp + ".json"))
+        );
+    }
+
+    // Accepts "30s", "2m" or an ISO-8601 duration such as "PT30S".
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+}
@@ -0,0 +1,253 @@
+package com.restapi.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.demo.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * End-to-end load test: boots the application on H2 with the "test" profile and a random port, seeds users
+ * and todos through the API, then drives the mixed {@link Workload} over real HTTP with concurrent clients.
+ * Per-endpoint throughput and latency percentiles are printed and written to a JSON report, e.g.
+ * <pre>
+ *   ./mvnw -Ploadtest verify -DskipTests -Dloadtest.args="--clients=32 --duration=60s"
+ * </pre>
+ * Options (all optional): --users, --todos, --clients, --warmup, --duration, --label, --output.
+ */
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int BATCH_SIZE = 1000;
+    private static final int USER_PAGE_SIZE = 100;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Instant startedAt = Instant.now();
+
+        // DevTools would relaunch the application in a restart class loader and drop the builder's settings.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("test")
+                // As a command-line argument, so it wins over server.port in application.properties.
+                .run("--server.port=0");
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            ApiClient api = new ApiClient("http://localhost:" + port + contextPath);
+
+            Map<String, EndpointStats> seedingStats = new LinkedHashMap<>();
+            seedingStats.put("register", new EndpointStats("POST /auth/register"));
+            seedingStats.put("batch", new EndpointStats("POST /todos/batch"));
+            List<Workload.SeededUser> users = seedUsers(api, options, seedingStats.get("register"));
+            List<Long> todoIds = seedTodos(api, options, users, seedingStats.get("batch"));
+            seedingStats.values().forEach(EndpointStats::finish);
+            System.out.printf("Seeded %d users and %d todos%n", users.size(), todoIds.size());
+
+            Workload workload = new Workload(api, todoIds);
+            double measuredSeconds = run(workload, users, options);
+
+            Map<String, Object> report = report(options, startedAt, workload, seedingStats, measuredSeconds);
+            Files.createDirectories(options.output().toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.output().toFile(), report);
+            printSummary(workload, measuredSeconds);
+            System.out.println("Report written to " + options.output().toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Registers the users in parallel (registration hashes the password, which is slow on purpose)
+     * and looks up their ids.
+     */
+    private static List<Workload.SeededUser> seedUsers(ApiClient api, LoadTestOptions options, EndpointStats stats) {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        Map<String, String> tokens = Collections.synchronizedMap(new HashMap<>());
+        IntStream.range(0, options.users()).parallel().forEach(i -> {
+            String username = "load-" + runId + "-" + i;
+            JsonNode response = api.post(stats, "/auth/register", null,
+                    Map.of("username", username, "email", username + "@example.com", "password", PASSWORD));
+            if (response == null) {
+                throw new IllegalStateException("Could not register " + username);
+            }
+            tokens.put(username, response.path("access_token").asText());
+        });
+
+        // Pages through the users newest first, so the ones just registered come up on the first pages.
+        String anyToken = tokens.values().iterator().next();
+        EndpointStats seedStats = new EndpointStats("seed");
+        List<Workload.SeededUser> users = new ArrayList<>();
+        for (int page = 0; users.size() < tokens.size(); page++) {
+            JsonNode response = api.get(seedStats, "/users?sort=id,desc&size=" + USER_PAGE_SIZE + "&page=" + page, anyToken);
+            if (response == null) {
+                throw new IllegalStateException("Could not list the users");
+            }
+            JsonNode content = response.path("content");
+            if (content.isEmpty()) {
+                throw new IllegalStateException("Found " + users.size() + " of the " + tokens.size() + " registered users");
+            }
+            for (JsonNode user : content) {
+                String username = user.path("username").asText();
+                if (tokens.containsKey(username)) {
+                    users.add(new Workload.SeededUser(user.path("id").asLong(), username, PASSWORD, tokens.get(username)));
+                }
+            }
+        }
+        return users;
+    }
+
+    private static List<Long> seedTodos(
+            ApiClient api, LoadTestOptions options, List<Workload.SeededUser> users, EndpointStats stats) {
+        List<Long> ids = new ArrayList<>(options.todos());
+        String token = users.get(0).token();
+        for (int start = 0; start < options.todos(); start += BATCH_SIZE) {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH_SIZE, options.todos()); i++) {
+                batch.add(Map.of(
+                        "title", "Seeded todo " + i,
+                        "description", "Seeded by the load test",
+                        "completed", i % 3 == 0,
+                        "userId", users.get(i % users.size()).id()));
+            }
+            JsonNode response = api.post(stats, "/todos/batch", token, batch);
+            if (response == null) {
+                throw new IllegalStateException("Could not seed todos");
+            }
+            for (JsonNode result : response.path("results")) {
+                if (result.path("success").asBoolean()) {
+                    ids.add(result.path("id").asLong());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Runs the clients through the warmup and the measured interval and returns the measured length in seconds.
+     */
+    private static double run(Workload workload, List<Workload.SeededUser> users, LoadTestOptions options)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(options.clients());
+        long warmupEnd = System.nanoTime() + options.warmup().toNanos();
+        long end = warmupEnd + options.duration().toNanos();
+
+        List<Future<?>> clients = new ArrayList<>();
+        for (int i = 0; i < options.clients(); i++) {
+            Workload.Client client = workload.new Client(users.get(i % users.size()));
+            clients.add(executor.submit(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    client.runOnce();
+                }
+            }));
+        }
+
+        System.out.printf("Warming up for %s with %d clients%n", options.warmup(), options.clients());
+        sleepUntil(warmupEnd);
+        workload.stats().values().forEach(EndpointStats::reset);
+        long measuredStart = System.nanoTime();
+        System.out.printf("Measuring for %s%n", options.duration());
+        sleepUntil(end);
+        workload.stats().values().forEach(EndpointStats::finish);
+        double measuredSeconds = (System.nanoTime() - measuredStart) / 1e9;
+
+        for (Future<?> client : clients) {
+            client.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        return measuredSeconds;
+    }
+
+    private static Map<String, Object> report(
+            LoadTestOptions options,
+            Instant startedAt,
+            Workload workload,
+            Map<String, EndpointStats> seedingStats,
+            double measuredSeconds
+    ) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label() != null ? options.label() : gitCommit());
+        report.put("started_at", startedAt.toString());
+        report.put("java_version", System.getProperty("java.version"));
+        report.put("available_processors", Runtime.getRuntime().availableProcessors());
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", options.users());
+        config.put("todos", options.todos());
+        config.put("clients", options.clients());
+        config.put("warmup_seconds", options.warmup().toSeconds());
+        config.put("duration_seconds", options.duration().toSeconds());
+        report.put("config", config);
+
+        long totalRequests = workload.stats().values().stream().mapToLong(EndpointStats::count).sum();
+        report.put("measured_seconds", Math.round(measuredSeconds * 1000.0) / 1000.0);
+        report.put("total_requests", totalRequests);
+        report.put("total_throughput_per_sec", Math.round(totalRequests / measuredSeconds * 1000.0) / 1000.0);
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        workload.stats().values().forEach(stats -> endpoints.put(stats.name(), stats.toReport(measuredSeconds)));
+        report.put("endpoints", endpoints);
+
+        // Seeding runs once, before the clients start; its latencies are reported but not part of the totals.
+        Map<String, Object> seeding = new LinkedHashMap<>();
+        seedingStats.values().forEach(stats -> seeding.put(stats.name(), stats.toReport(measuredSeconds)));
+        report.put("seeding", seeding);
+        return report;
+    }
+
+    private static void printSummary(Workload workload, double measuredSeconds) {
+        System.out.printf("%n%-30s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (EndpointStats stats : workload.stats().values()) {
+            Map<String, Object> row = stats.toReport(measuredSeconds);
+            System.out.printf("%-30s %10d %8d %10.1f %10.3f %10.3f %10.3f%n", stats.name(),
+                    row.get("requests"), row.get("errors"), row.get("throughput_per_sec"),
+                    row.get("p50_ms"), row.get("p99_ms"), row.get("p999_ms"));
+        }
+    }
+
+    // Best effort, so runs can be compared across commits; null outside a git checkout.
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (InputStream output = process.getInputStream()) {
+                String commit = new String(output.readAllBytes(), StandardCharsets.UTF_8).trim();
+                return process.waitFor() == 0 ? commit : null;
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+}
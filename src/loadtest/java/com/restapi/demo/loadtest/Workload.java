@@ -0,0 +1,131 @@
+package com.restapi.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The mixed workload: one weighted operation per endpoint of the Auth, Todo and User controllers.
+ * Each operation is recorded under its own "METHOD path" name.
+ */
+class Workload {
+
+    enum Operation {
+        LOGIN("POST /auth/authenticate", 2),
+        LIST_TODOS("GET /todos", 15),
+        LIST_TODOS_CURSOR("GET /todos?after", 5),
+        LIST_TODOS_FILTERED("GET /todos?userId&completed", 8),
+        GET_TODO("GET /todos/{id}", 30),
+        CREATE_TODO("POST /todos", 10),
+        UPDATE_TODO("PUT /todos/{id}", 10),
+        DELETE_TODO("DELETE /todos/{id}", 5),
+        LIST_USERS("GET /users", 2),
+        GET_USER("GET /users/{id}", 5),
+        LIST_USER_TODOS("GET /users/{id}/todos", 8);
+
+        final String endpoint;
+        final int weight;
+
+        Operation(String endpoint, int weight) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(Operation.values()).mapToInt(o -> o.weight).sum();
+
+    private final ApiClient api;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final List<Long> seededTodoIds;
+    private final int seededTodoPages;
+
+    Workload(ApiClient api, List<Long> seededTodoIds) {
+        this.api = api;
+        this.seededTodoIds = seededTodoIds;
+        this.seededTodoPages = Math.max(1, seededTodoIds.size() / 20);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation.endpoint));
+        }
+    }
+
+    Map<Operation, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * One simulated client: logged in as one seeded user, and the only one that deletes the todos it created,
+     * so the seeded data set stays the same size for the whole run.
+     */
+    final class Client {
+
+        private final SeededUser user;
+        private final Deque<Long> createdTodoIds = new ArrayDeque<>();
+        private String token;
+
+        Client(SeededUser user) {
+            this.user = user;
+            this.token = user.token();
+        }
+
+        void runOnce() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Operation operation = pick(random.nextInt(TOTAL_WEIGHT));
+            if (operation == Operation.DELETE_TODO && createdTodoIds.isEmpty()) {
+                operation = Operation.CREATE_TODO;
+            }
+            EndpointStats endpoint = stats.get(operation);
+
+            switch (operation) {
+                case LOGIN -> {
+                    JsonNode response = api.post(endpoint, "/auth/authenticate", null,
+                            Map.of("username", user.username(), "password", user.password()));
+                    if (response != null) {
+                        token = response.path("access_token").asText();
+                    }
+                }
+                case LIST_TODOS -> api.get(endpoint, "/todos?size=20&page=" + random.nextInt(seededTodoPages), token);
+                case LIST_TODOS_CURSOR -> api.get(endpoint, "/todos?size=20&after=", token);
+                case LIST_TODOS_FILTERED -> api.get(endpoint,
+                        "/todos?size=20&userId=" + user.id() + "&completed=" + random.nextBoolean(), token);
+                case GET_TODO -> api.get(endpoint, "/todos/" + randomSeededTodoId(random), token);
+                case CREATE_TODO -> {
+                    JsonNode response = api.post(endpoint, "/todos", token, Map.of(
+                            "title", "Load test todo", "description", "Created by the load test", "userId", user.id()));
+                    if (response != null) {
+                        createdTodoIds.add(response.path("id").asLong());
+                    }
+                }
+                case UPDATE_TODO -> api.put(endpoint, "/todos/" + randomSeededTodoId(random), token,
+                        // The request DTO requires a title and a user id; the owner is not changed by an update.
+                        Map.of("title", "Updated by the load test", "completed", random.nextBoolean(), "userId", user.id()));
+                case DELETE_TODO -> api.delete(endpoint, "/todos/" + createdTodoIds.poll(), token);
+                case LIST_USERS -> api.get(endpoint, "/users", token);
+                case GET_USER -> api.get(endpoint, "/users/" + user.id(), token);
+                case LIST_USER_TODOS -> api.get(endpoint, "/users/" + user.id() + "/todos?size=20", token);
+            }
+        }
+
+        private long randomSeededTodoId(ThreadLocalRandom random) {
+            return seededTodoIds.get(random.nextInt(seededTodoIds.size()));
+        }
+    }
+
+    private static Operation pick(int ticket) {
+        for (Operation operation : Operation.values()) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + TOTAL_WEIGHT);
+    }
+
+    record SeededUser(long id, String username, String password, String token) {
+    }
+}
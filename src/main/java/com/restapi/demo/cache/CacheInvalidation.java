@@ -0,0 +1,17 @@
+package com.restapi.demo.cache;
+
+import java.io.Serializable;
+
+/**
+ * A message telling the other nodes to drop a cache entry from their local (L1) cache.
+ *
+ * @param cacheName the cache the entry belongs to
+ * @param key       the entry's key, or null for every entry of the cache. Must be Serializable, so a
+ *                  transport over the network can carry it.
+ */
+public record CacheInvalidation(String cacheName, Object key) implements Serializable {
+
+    public static CacheInvalidation all(String cacheName) {
+        return new CacheInvalidation(cacheName, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.restapi.demo.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * The broadcast channel between the nodes running this application, over which cache writes are announced
+ * so every other node drops its local copy. One instance per node.
+ * Implementations deliver a message to the listeners of every other node, never back to the publishing node,
+ * in the spirit of a Redis Pub/Sub channel.
+ */
+public interface CacheInvalidationTransport {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
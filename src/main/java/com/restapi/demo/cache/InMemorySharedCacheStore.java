@@ -0,0 +1,48 @@
+package com.restapi.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * A local stand-in for a Redis-backed {@link SharedCacheStore}. Like Redis it only holds serialized copies
+ * of the values, each expiring after its own time to live, so code that works against it also works across
+ * processes. Sharing one instance between several nodes in a JVM gives them a common L2, e.g. in tests.
+ */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private final Cache<String, StoredValue> store;
+
+    public InMemorySharedCacheStore(long maximumSize) {
+        this.store = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, StoredValue value) -> value.timeToLive()))
+                .build();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        StoredValue value = store.getIfPresent(key);
+        return value != null ? value.bytes() : null;
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration timeToLive) {
+        store.put(key, new StoredValue(value, timeToLive));
+    }
+
+    @Override
+    public void setIfAbsent(String key, byte[] value, Duration timeToLive) {
+        store.asMap().putIfAbsent(key, new StoredValue(value, timeToLive));
+    }
+
+    @Override
+    public void deleteByPrefix(String prefix) {
+        store.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private record StoredValue(byte[] bytes, Duration timeToLive) {
+    }
+}
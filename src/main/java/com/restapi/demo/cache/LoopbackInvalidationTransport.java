@@ -0,0 +1,49 @@
+package com.restapi.demo.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * An in-process invalidation channel. A new instance is a channel with a single node on it, which is
+ * all a single instance deployment needs: there is nobody else to tell. {@link #newNode()} adds
+ * another node to the same channel, so several nodes can run inside one JVM, e.g. in tests.
+ * Messages are delivered synchronously on the publishing thread.
+ */
+public class LoopbackInvalidationTransport implements CacheInvalidationTransport {
+
+    private final Set<LoopbackInvalidationTransport> channel;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public LoopbackInvalidationTransport() {
+        this(ConcurrentHashMap.newKeySet());
+    }
+
+    private LoopbackInvalidationTransport(Set<LoopbackInvalidationTransport> channel) {
+        this.channel = channel;
+        channel.add(this);
+    }
+
+    /**
+     * Another node on the same channel.
+     */
+    public LoopbackInvalidationTransport newNode() {
+        return new LoopbackInvalidationTransport(channel);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (LoopbackInvalidationTransport node : channel) {
+            if (node != this) {
+                node.listeners.forEach(listener -> listener.accept(invalidation));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,179 @@
+package com.restapi.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.restapi.demo.util.ETagUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the encoded JSON (and a gzipped copy) of hot GET responses, so serving them again is a copy of
+ * bytes to the output stream: no Jackson, no page metadata or URLs, no ETag hashing.
+ * <p>
+ * Entries are keyed by the identity of the cached DTO or page they were rendered from (weak keys). Whenever
+ * the 'todo' or 'todoPages' cache entry is replaced or dropped, on writes, evictions or refreshes, the next
+ * request renders from the new object and the old bytes become unreachable with it. So the bytes are
+ * invalidated by exactly the events that invalidate the DTO caches, with nothing else to keep in sync.
+ * Its statistics are exported as the "todoResponseBodies" cache metrics.
+ * <p>
+ * Off by default (application.cache.response-bodies.enabled): it holds every hot body twice in memory and
+ * only pays off once serialization shows up in the profile of a read-heavy deployment.
+ */
+@Component
+public class ResponseBodyCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "todoResponseBodies";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long gzipMinSize;
+    private final Cache<Object, CachedBody> cache;
+
+    public ResponseBodyCache(
+            ObjectMapper objectMapper,
+            @Value("${application.cache.response-bodies.enabled:false}") boolean enabled,
+            @Value("${application.cache.response-bodies.max-size:16MB}") DataSize maxSize,
+            @Value("${application.cache.response-bodies.gzip-min-size:2KB}") DataSize gzipMinSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzipMinSize = gzipMinSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .weakKeys() // Identity keys, collected along with the cached DTO or page
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Object source, CachedBody body) -> body.size())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Answers the request from the bytes rendered earlier from {@code source}, if there are any:
+     * a 304 when the client's copy is current, the cached body otherwise.
+     *
+     * @param variant whatever else the body depends on besides {@code source}, e.g. the request URL
+     *                that page links are built from, or null
+     * @return false if nothing usable is cached and the response has to be built as usual
+     */
+    public boolean writeCached(ServletWebRequest webRequest, Object source, String variant) throws IOException {
+        if (!enabled || !acceptsJson(webRequest)) {
+            return false;
+        }
+        CachedBody body = cache.getIfPresent(source);
+        if (body == null || !Objects.equals(body.variant(), variant)) {
+            return false;
+        }
+        HttpHeaders headers = body.headers();
+        if (!ETagUtils.checkNotModified(webRequest, headers.getETag(), headers.getLastModified())) {
+            write(webRequest, body);
+        }
+        return true;
+    }
+
+    /**
+     * Renders a 200 response built from {@code source}, caches its bytes and writes them.
+     *
+     * @return null once the response has been written, or {@code response} itself for Spring MVC to
+     * write when it isn't cached (disabled, no body, or a client that doesn't take JSON)
+     */
+    public <T> ResponseEntity<T> writeAndCache(ServletWebRequest webRequest, Object source, String variant,
+                                               ResponseEntity<T> response) throws IOException {
+        if (!enabled || response.getBody() == null || !response.getStatusCode().isSameCodeAs(HttpStatus.OK)
+                || !acceptsJson(webRequest)) {
+            return response;
+        }
+        byte[] json = objectMapper.writeValueAsBytes(response.getBody());
+        byte[] gzip = json.length >= gzipMinSize ? gzip(json) : null;
+        CachedBody body = new CachedBody(variant, HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), json, gzip);
+        cache.put(source, body);
+        write(webRequest, body);
+        return null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same tag keys as the Spring caches' metrics, see JwtPrincipalCache.
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME, "cache.manager", "responseBodyCache", "name", CACHE_NAME);
+    }
+
+    private static void write(ServletWebRequest webRequest, CachedBody body) throws IOException {
+        HttpServletResponse response = webRequest.getResponse();
+        // set rather than add: checkNotModified may already have written the ETag and Last-Modified.
+        body.headers().forEach((name, values) -> response.setHeader(name, String.join(", ", values)));
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] bytes = body.json();
+        if (body.gzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(webRequest)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                bytes = body.gzip();
+            }
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    private static boolean acceptsJson(ServletWebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            return mediaTypes.stream().anyMatch(MediaType.APPLICATION_JSON::isCompatibleWith);
+        } catch (InvalidMediaTypeException e) {
+            return false; // Leave the error response to Spring MVC
+        }
+    }
+
+    private static boolean acceptsGzip(ServletWebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" explicitly refuses it.
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A rendered 200 response: the headers of the original ResponseEntity (ETag, Last-Modified) and its body.
+     */
+    private record CachedBody(String variant, HttpHeaders headers, byte[] json, byte[] gzip) {
+
+        int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.restapi.demo.cache;
+
+import java.time.Duration;
+
+/**
+ * The shared (L2) cache every node reads from after a miss in its local cache.
+ * Its operations are those of a Redis-like key/value store: serialized values under string keys,
+ * each with a time to live, so a Redis client is a drop-in implementation.
+ */
+public interface SharedCacheStore {
+
+    /**
+     * The value stored under the key, or null if there is none or it has expired.
+     */
+    byte[] get(String key);
+
+    void set(String key, byte[] value, Duration timeToLive);
+
+    /**
+     * Sets the value only if the key holds none (SET NX).
+     */
+    void setIfAbsent(String key, byte[] value, Duration timeToLive);
+
+    /**
+     * Deletes every key starting with the prefix (a SCAN + DEL on Redis).
+     */
+    void deleteByPrefix(String prefix);
+}
@@ -0,0 +1,34 @@
+package com.restapi.demo.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.restapi.demo.partition.PartitionedTodoReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads entries of the todo caches from their key, which is what lets Caffeine refresh a hot entry
+ * in the background (refreshAfterWrite) instead of letting it expire and miss on a request.
+ * Misses themselves are loaded by the @Cacheable methods, one load per key at a time (sync = true).
+ * <ul>
+ *     <li>'todo' is keyed by todo id. A todo that is gone reloads as null, which drops the entry.</li>
+ *     <li>'todoPages' is keyed by {@link TodoPageKey}. Only keys of the current generation are ever read,
+ *     so pages of older generations are never refreshed and just age out.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class TodoCacheLoader implements CacheLoader<Object, Object> {
+
+    private final PartitionedTodoReader partitionedTodoReader;
+
+    @Override
+    public Object load(Object key) {
+        if (key instanceof Long id) {
+            return partitionedTodoReader.findProjectedById(id).orElse(null);
+        }
+        if (key instanceof TodoPageKey pageKey) {
+            return partitionedTodoReader.findAllProjected(pageKey.effectiveFilter(), pageKey.pageable());
+        }
+        throw new IllegalArgumentException("Not a todo cache key: " + key);
+    }
+}
@@ -0,0 +1,76 @@
+package com.restapi.demo.cache;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.restapi.demo.util.AppConstants.TODO_PAGE_CACHE;
+
+/**
+ * A generation counter for cached todo pages.
+ * The current generation is part of every page cache key, so bumping it makes all previously
+ * cached pages unreachable at once (they simply age out of Caffeine) without flushing the
+ * single-todo cache or any other cache.
+ * With two-level caching, every bump is announced to the other nodes, which bump their own generation.
+ */
+@Component("todoPageCacheVersion")
+public class TodoPageCacheVersion {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final CacheInvalidationTransport transport; // null unless two-level caching is enabled
+
+    public TodoPageCacheVersion(ObjectProvider<CacheInvalidationTransport> transport) {
+        this.transport = transport.getIfAvailable();
+        if (this.transport != null) {
+            this.transport.subscribe(invalidation -> {
+                if (TODO_PAGE_CACHE.equals(invalidation.cacheName())) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * The generation that page cache keys are currently built from.
+     */
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * The key to cache a page under in the current generation.
+     */
+    public TodoPageKey keyFor(Long userId, TodoFilterDto filter, Pageable pageable) {
+        return new TodoPageKey(current(), userId, filter, pageable);
+    }
+
+    /**
+     * Invalidates every cached page. When called inside a transaction the bump is deferred until
+     * after commit, so a concurrent reader can't cache pre-commit data under the new generation.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        } else {
+            bump();
+        }
+    }
+
+    private void bump() {
+        generation.incrementAndGet();
+        if (transport != null) {
+            transport.publish(CacheInvalidation.all(TODO_PAGE_CACHE));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.restapi.demo.cache;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * The key of a cached todo page. It holds everything the page is queried with, so TodoCacheLoader can
+ * reload the page from the key alone when it is refreshed ahead of expiry.
+ *
+ * @param generation the TodoPageCacheVersion generation the page was cached under
+ * @param userId     the owner for GET /users/{id}/todos, or null for GET /todos. Kept apart from the
+ *                   filter's userId since only the former answers 404 for an unknown user.
+ */
+public record TodoPageKey(long generation, Long userId, TodoFilterDto filter, Pageable pageable) {
+
+    /**
+     * The filter the page is actually queried with.
+     */
+    public TodoFilterDto effectiveFilter() {
+        return userId != null ? filter.toBuilder().userId(userId).build() : filter;
+    }
+}
@@ -0,0 +1,172 @@
+package com.restapi.demo.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * A node's local cache (L1) in front of the {@link SharedCacheStore} (L2) all nodes share.
+ * <ul>
+ *     <li>Reads try L1, then L2, then the value loader; whatever is found fills the levels below it.</li>
+ *     <li>Writes update L2 and tell the other nodes over the {@link CacheInvalidationTransport} to drop
+ *     their L1 copy, so their next read gets the new value from L2. Inside a transaction this happens after
+ *     commit, so no node can re-read the old value from the database after being told.</li>
+ *     <li>An evicted key is not simply deleted from L2 but replaced by a short-lived tombstone. Fills from
+ *     reads never overwrite an existing key, so a read that fetched the old row just before the commit
+ *     can't put it back into L2 after the eviction.</li>
+ * </ul>
+ * Without a shared store (caches not listed in application.cache.two-level.cache-names) it is L1 only,
+ * and writes are still announced to the other nodes.
+ */
+public class TwoLevelCache implements Cache {
+
+    // Not a serialized value: an empty entry marks a recently evicted key.
+    private static final byte[] TOMBSTONE = new byte[0];
+
+    private final Cache localCache;
+    private final SharedCacheStore sharedStore;
+    private final CacheInvalidationTransport transport;
+    private final Duration timeToLive;
+    private final Duration tombstoneTimeToLive;
+    // JDK serialization, as Spring Data Redis does by default: cached values must be Serializable.
+    private final Converter<Object, byte[]> serializer = new SerializingConverter();
+    private final Converter<byte[], Object> deserializer = new DeserializingConverter();
+
+    public TwoLevelCache(Cache localCache, SharedCacheStore sharedStore, CacheInvalidationTransport transport,
+                         Duration timeToLive, Duration tombstoneTimeToLive) {
+        this.localCache = localCache;
+        this.sharedStore = sharedStore;
+        this.transport = transport;
+        this.timeToLive = timeToLive;
+        this.tombstoneTimeToLive = tombstoneTimeToLive;
+    }
+
+    public Cache getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    public String getName() {
+        return localCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = localCache.get(key);
+        if (local != null || sharedStore == null) {
+            return local;
+        }
+        Object shared = readShared(key);
+        if (shared == null) {
+            return null;
+        }
+        localCache.put(key, shared);
+        return new SimpleValueWrapper(shared);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (sharedStore == null) {
+            return localCache.get(key, valueLoader);
+        }
+        // The local cache runs this once per key however many callers miss at the same time.
+        return localCache.get(key, () -> {
+            Object shared = readShared(key);
+            if (shared != null) {
+                return (T) shared;
+            }
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                sharedStore.setIfAbsent(sharedKey(key), serializer.convert(loaded), timeToLive);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        localCache.put(key, value);
+        afterCommit(() -> {
+            if (sharedStore != null) {
+                if (value != null) {
+                    sharedStore.set(sharedKey(key), serializer.convert(value), timeToLive);
+                } else {
+                    sharedStore.set(sharedKey(key), TOMBSTONE, tombstoneTimeToLive);
+                }
+            }
+            transport.publish(new CacheInvalidation(getName(), key));
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        localCache.evict(key);
+        afterCommit(() -> {
+            // Again, in case a read refilled it from the database before the commit.
+            localCache.evict(key);
+            if (sharedStore != null) {
+                sharedStore.set(sharedKey(key), TOMBSTONE, tombstoneTimeToLive);
+            }
+            transport.publish(new CacheInvalidation(getName(), key));
+        });
+    }
+
+    @Override
+    public void clear() {
+        localCache.clear();
+        afterCommit(() -> {
+            localCache.clear();
+            if (sharedStore != null) {
+                sharedStore.deleteByPrefix(getName() + "::");
+            }
+            transport.publish(CacheInvalidation.all(getName()));
+        });
+    }
+
+    private Object readShared(Object key) {
+        byte[] bytes = sharedStore.get(sharedKey(key));
+        return bytes != null && bytes.length > 0 ? deserializer.convert(bytes) : null;
+    }
+
+    // The "<cache>::<key>" layout of Spring Data Redis caches.
+    private String sharedKey(Object key) {
+        return getName() + "::" + key;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
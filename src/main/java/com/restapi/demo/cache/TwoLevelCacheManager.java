@@ -0,0 +1,71 @@
+package com.restapi.demo.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Turns the caches of a node-local cache manager into {@link TwoLevelCache}s, and drops entries from them
+ * when another node announces a write over the {@link CacheInvalidationTransport}.
+ * Only the caches named in {@code sharedCacheNames} get an L2 in the {@link SharedCacheStore}; the others
+ * stay node-local but are still invalidated across nodes.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager localCacheManager;
+    private final SharedCacheStore sharedStore;
+    private final CacheInvalidationTransport transport;
+    private final Set<String> sharedCacheNames;
+    private final Duration timeToLive;
+    private final Duration tombstoneTimeToLive;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager localCacheManager, SharedCacheStore sharedStore,
+                                CacheInvalidationTransport transport, Set<String> sharedCacheNames,
+                                Duration timeToLive, Duration tombstoneTimeToLive) {
+        this.localCacheManager = localCacheManager;
+        this.sharedStore = sharedStore;
+        this.transport = transport;
+        this.sharedCacheNames = Set.copyOf(sharedCacheNames);
+        this.timeToLive = timeToLive;
+        this.tombstoneTimeToLive = tombstoneTimeToLive;
+        transport.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return localCacheManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache localCache = localCacheManager.getCache(name);
+        if (localCache == null) {
+            return null;
+        }
+        return new TwoLevelCache(localCache, sharedCacheNames.contains(name) ? sharedStore : null, transport,
+                timeToLive, tombstoneTimeToLive);
+    }
+
+    // Another node wrote: only our L1 copy is dropped, L2 was already updated by the writer.
+    private void onInvalidation(CacheInvalidation invalidation) {
+        Cache localCache = localCacheManager.getCache(invalidation.cacheName());
+        if (localCache == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            localCache.clear();
+        } else {
+            localCache.evict(invalidation.key());
+        }
+    }
+}
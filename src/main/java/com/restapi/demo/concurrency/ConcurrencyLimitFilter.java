@@ -0,0 +1,121 @@
+package com.restapi.demo.concurrency;
+
+import com.restapi.demo.exception.ServiceUnavailableException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests processed at the same time, sized from the JDBC connection pool.
+ * With virtual threads Tomcat no longer limits concurrency through its thread pool, so thousands of
+ * requests could otherwise pile up in Hikari's connection wait and fail after its connection timeout.
+ * Here they wait (parked, which is cheap on a virtual thread) for a permit instead, and get a
+ * 503 with Retry-After if none frees up within the acquire timeout.
+ * It runs before Spring Security, because authenticating a request may already need a connection.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "application.concurrency.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // Used when the pool size can't be read from the DataSource (Hikari's own default).
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final long retryAfterSeconds;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${application.concurrency.limiter.max-in-flight:0}") int maxInFlight,
+            @Value("${application.concurrency.limiter.in-flight-per-connection:2}") int inFlightPerConnection,
+            @Value("${application.concurrency.limiter.acquire-timeout:2s}") Duration acquireTimeout,
+            @Value("${application.concurrency.limiter.retry-after-seconds:1}") long retryAfterSeconds
+    ) {
+        int limit = maxInFlight > 0 ? maxInFlight : inFlightPerConnection * poolSize(dataSource);
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.rejected = Counter.builder("app.concurrency.rejected")
+                .description("Requests rejected because no in-flight permit became available")
+                .register(meterRegistry);
+        Gauge.builder("app.concurrency.in.flight", permits, p -> limit - p.availablePermits())
+                .description("Requests currently holding an in-flight permit")
+                .register(meterRegistry);
+        Gauge.builder("app.concurrency.waiting", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for an in-flight permit")
+                .register(meterRegistry);
+        log.info("Concurrency limiter allows {} requests in flight", limit);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            handlerExceptionResolver.resolveException(request, response, null, new ServiceUnavailableException(
+                    "The server is at capacity, please retry later", retryAfterSeconds));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Health checks and metric scrapes must keep working when the server is saturated.
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size, assuming {}", DEFAULT_POOL_SIZE, e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,100 @@
+package com.restapi.demo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.restapi.demo.cache.CacheInvalidationTransport;
+import com.restapi.demo.cache.InMemorySharedCacheStore;
+import com.restapi.demo.cache.LoopbackInvalidationTransport;
+import com.restapi.demo.cache.SharedCacheStore;
+import com.restapi.demo.cache.TodoCacheLoader;
+import com.restapi.demo.cache.TwoLevelCache;
+import com.restapi.demo.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Builds the Caffeine caches from spring.cache.cache-names and spring.cache.caffeine.spec in async mode,
+     * with TodoCacheLoader for refreshes and loads running on cacheLoadExecutor.
+     * In async mode a key that is being loaded only holds a future, so concurrent callers for that key
+     * wait on the one in-flight load without holding a lock of the cache's map while the query runs.
+     * With application.cache.two-level.enabled they become the L1 of a {@link TwoLevelCacheManager},
+     * so writes on one node also invalidate the other nodes' copies.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            CacheProperties cacheProperties,
+            TodoCacheLoader todoCacheLoader,
+            @Qualifier("cacheLoadExecutor") TaskExecutor cacheLoadExecutor,
+            ObjectProvider<SharedCacheStore> sharedCacheStore,
+            ObjectProvider<CacheInvalidationTransport> invalidationTransport,
+            @Value("${application.cache.two-level.enabled:false}") boolean twoLevel,
+            @Value("${application.cache.two-level.cache-names:todo}") Set<String> sharedCacheNames,
+            @Value("${application.cache.two-level.time-to-live:1h}") Duration timeToLive,
+            @Value("${application.cache.two-level.tombstone-time-to-live:10s}") Duration tombstoneTimeToLive
+    ) {
+        CaffeineCacheManager localCacheManager = new CaffeineCacheManager();
+        String spec = cacheProperties.getCaffeine().getSpec();
+        Caffeine<Object, Object> builder = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+        localCacheManager.setCaffeine(builder.executor(cacheLoadExecutor));
+        localCacheManager.setAsyncCacheMode(true);
+        localCacheManager.setCacheLoader(todoCacheLoader);
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            localCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        if (!twoLevel) {
+            return localCacheManager;
+        }
+        return new TwoLevelCacheManager(localCacheManager, sharedCacheStore.getObject(), invalidationTransport.getObject(),
+                sharedCacheNames, timeToLive, tombstoneTimeToLive);
+    }
+
+    /**
+     * The L2 of the two-level caches. This in-memory stand-in is only shared within the JVM; for several
+     * instances, replace it with a Redis-backed {@link SharedCacheStore} bean.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.two-level.enabled", havingValue = "true")
+    public SharedCacheStore sharedCacheStore(
+            @Value("${application.cache.two-level.in-memory.maximum-size:10000}") long maximumSize
+    ) {
+        return new InMemorySharedCacheStore(maximumSize);
+    }
+
+    /**
+     * Announces cache writes to the other instances. The loopback transport has no other instances to tell;
+     * replace it with one over a message broker (e.g. Redis Pub/Sub) for several instances.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.two-level.enabled", havingValue = "true")
+    public CacheInvalidationTransport cacheInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+
+    /**
+     * Exports the statistics of a two-level cache's L1 under the cache's name, like a plain Caffeine cache.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(((CaffeineCache) cache.getLocalCache()).getNativeCache(),
+                cache.getName(), tags);
+    }
+}
@@ -0,0 +1,110 @@
+package com.restapi.demo.config;
+
+import com.restapi.demo.datasource.ReadYourWritesTracker;
+import com.restapi.demo.datasource.ReplicaPool;
+import com.restapi.demo.datasource.ReplicaRoutingDataSource;
+import com.restapi.demo.datasource.WriteTrackingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary (spring.datasource.*).
+ * Without application.datasource.replicas.enabled none of this exists and Spring Boot sets up the
+ * primary alone, as usual.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * The primary's connection pool, configured like Spring Boot's own (spring.datasource.hikari.*).
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${application.datasource.replicas.read-your-writes-window:5s}") Duration window
+    ) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler replicaHealthCheckScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("replica-health-");
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * One read-only connection pool per URL in application.datasource.replicas.urls, named replica-0, replica-1...
+     */
+    @Bean
+    public ReplicaPool replicaPool(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Qualifier("replicaHealthCheckScheduler") TaskScheduler healthCheckScheduler,
+            @Value("${application.datasource.replicas.urls}") List<String> urls,
+            @Value("${application.datasource.replicas.username:}") String username,
+            @Value("${application.datasource.replicas.password:}") String password,
+            @Value("${application.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${application.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${application.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval
+    ) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaPool(replicas, healthCheckScheduler, healthCheckInterval, meterRegistry);
+    }
+
+    /**
+     * The DataSource the application uses. The connection is only taken when a transaction runs its first
+     * statement, by which time the transaction is known to be read-only or not.
+     * It still unwraps to the primary's {@link HikariDataSource}, e.g. for ConcurrencyLimitFilter.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                                 ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primaryDataSource, readYourWritesTracker));
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaPool, readYourWritesTracker, meterRegistry));
+        return dataSource;
+    }
+}
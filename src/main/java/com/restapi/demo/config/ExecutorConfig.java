@@ -0,0 +1,146 @@
+package com.restapi.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs the parsing (producer) side of todo imports.
+     * There is no queue: once every thread is busy, new imports are rejected instead of piling up.
+     * In virtual-thread mode the pool keeps its size limit but its threads are virtual.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor todoImportExecutor(
+            @Value("${application.todos.import.max-concurrent-imports:2}") int maxConcurrentImports,
+            Environment environment
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("todo-import-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("todo-import-").getVirtualThreadFactory());
+        }
+        executor.setCorePoolSize(maxConcurrentImports);
+        executor.setMaxPoolSize(maxConcurrentImports);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes todo change events to the SSE subscribers of GET /todos/changes. Each subscriber has at most
+     * one send task queued at a time, so the queue is bounded by the number of subscribers.
+     * In virtual-thread mode every send gets its own virtual thread, so a subscriber whose socket has
+     * stalled only parks its own thread instead of holding up the others.
+     */
+    @Bean
+    public TaskExecutor todoChangeFeedExecutor(
+            @Value("${application.todos.changes.send-threads:4}") int sendThreads,
+            Environment environment
+    ) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("todo-changes-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("todo-changes-");
+        executor.setCorePoolSize(sendThreads);
+        executor.setMaxPoolSize(sendThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the loads and refresh-ahead reloads of the todo caches. A request that misses waits for its load
+     * here, so the pool is sized like the connection pool the loads draw from; beyond that they queue.
+     * In virtual-thread mode every load gets its own virtual thread.
+     */
+    @Bean
+    public TaskExecutor cacheLoadExecutor(
+            @Value("${application.cache.load-threads:8}") int loadThreads,
+            Environment environment
+    ) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("cache-load-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-load-");
+        executor.setCorePoolSize(loadThreads);
+        executor.setMaxPoolSize(loadThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the per-partition queries of scatter-gathered todo listings. Each query holds a connection,
+     * so the pool is kept well below the connection pool; further queries queue.
+     * In virtual-thread mode the pool keeps its size limit but its threads are virtual.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor todoPartitionQueryExecutor(
+            @Value("${application.todos.partitions.query-threads:4}") int queryThreads,
+            Environment environment
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("todo-partition-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("todo-partition-").getVirtualThreadFactory());
+        }
+        executor.setCorePoolSize(queryThreads);
+        executor.setMaxPoolSize(queryThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the per-range queries of the admin user statistics. Like todoPartitionQueryExecutor each query
+     * holds a connection, and the pool is separate so a dashboard can't hold up the todo listings.
+     * In virtual-thread mode the pool keeps its size limit but its threads are virtual.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor userStatsQueryExecutor(
+            @Value("${application.users.stats.query-threads:4}") int queryThreads,
+            Environment environment
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("user-stats-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("user-stats-").getVirtualThreadFactory());
+        }
+        executor.setCorePoolSize(queryThreads);
+        executor.setMaxPoolSize(queryThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ticks the heartbeats of the todo change feed. It only queues them; they are sent by todoChangeFeedExecutor.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler todoChangeFeedHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("todo-changes-heartbeat-");
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Runs the periodic todo stats reconciliation (see TodoStatsReconciler).
+     */
+    @Bean
+    public ThreadPoolTaskScheduler todoStatsReconcileScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("todo-stats-reconcile-");
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
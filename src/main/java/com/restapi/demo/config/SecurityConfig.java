@@ -3,6 +3,8 @@ package com.restapi.demo.config;
 import com.restapi.demo.security.CustomAccessDeniedHandler;
 import com.restapi.demo.security.DelegatedAuthenticationEntryPoint;
 import com.restapi.demo.security.JwtAuthenticationFilter;
+import com.restapi.demo.security.Role;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -33,12 +35,20 @@ public class SecurityConfig {
 
     private static final String[] WHITE_LIST_URLS = {
             "/auth/**",
+            // -- Actuator health checks, for load balancers and orchestrators
+            "/actuator/health/**",
             // -- Swagger UI v3 (OpenAPI)
             "/v3/api-docs/**",
             "/swagger-ui/**",
             "/swagger-ui.html"
     };
 
+    // Actuator endpoints that reveal internals: the scraper authenticates with an ADMIN token.
+    private static final String[] ADMIN_URLS = {
+            "/actuator/info",
+            "/actuator/prometheus"
+    };
+
     /**
      * Defines the security filter chain that applies to all HTTP requests.
      * This is the modern replacement for WebSecurityConfigurerAdapter.
@@ -52,7 +62,10 @@ public class SecurityConfig {
                 // Define authorization rules for HTTP requests.
                 .authorizeHttpRequests(req ->
                         req.requestMatchers(WHITE_LIST_URLS).permitAll() // Permit all requests to white-listed URLs
-                                // .requestMatchers("/api/v1/admin/**").hasRole("ADMIN") // Example for role-specific endpoints
+                                // Async dispatches (the end of the SSE change feed, streamed exports) continue a request
+                                // that was already authorized; the JWT filter doesn't run for them again.
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers(ADMIN_URLS).hasAuthority(Role.ADMIN.name())
                                 .anyRequest().authenticated() // All other requests must be authenticated
                 )
 
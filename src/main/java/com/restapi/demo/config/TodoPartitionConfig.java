@@ -0,0 +1,25 @@
+package com.restapi.demo.config;
+
+import com.restapi.demo.partition.TodoPartitionStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnExpression("${application.todos.partitions.count:1} > 1")
+public class TodoPartitionConfig {
+
+    /**
+     * Routes Hibernate's statements on the todos table to the partition of their transaction.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer todoPartitionStatementInspector(
+            @Value("${application.todos.partitions.count}") int count
+    ) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new TodoPartitionStatementInspector(count));
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth") // <-- This sets the base URL for this controller
 @RequiredArgsConstructor
@@ -23,21 +25,21 @@ public class AuthenticationController {
      * Endpoint for user registration.
      */
     @PostMapping("/register") // <-- This defines the .../register endpoint
-    public ResponseEntity<AuthenticationResponse> register(
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> register(
             @RequestBody RegisterRequest request
     ) {
-        // Delegates the actual work to the AuthenticationService
-        return ResponseEntity.ok(service.register(request));
+        // Delegates the actual work to the AuthenticationService; the response is written once hashing completes
+        return service.register(request).thenApply(ResponseEntity::ok);
     }
 
     /**
      * Endpoint for user authentication (login).
      */
     @PostMapping("/authenticate") // <-- This defines the .../authenticate endpoint
-    public ResponseEntity<AuthenticationResponse> authenticate(
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> authenticate(
             @RequestBody AuthenticationRequest request
     ) {
-        // Delegates the actual work to the AuthenticationService
-        return ResponseEntity.ok(service.authenticate(request));
+        // Delegates the actual work to the AuthenticationService; the response is written once hashing completes
+        return service.authenticate(request).thenApply(ResponseEntity::ok);
     }
 }
\ No newline at end of file
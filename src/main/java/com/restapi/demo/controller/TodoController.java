@@ -1,9 +1,22 @@
 package com.restapi.demo.controller;
 
+import com.restapi.demo.cache.ResponseBodyCache;
+import com.restapi.demo.dto.CursorPaginatedResponse;
 import com.restapi.demo.dto.PaginatedResponse;
+import com.restapi.demo.dto.todo.TodoBatchResponseDto;
+import com.restapi.demo.dto.todo.TodoBatchUpdateDto;
+import com.restapi.demo.dto.todo.TodoExportFormat;
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoImportResponseDto;
 import com.restapi.demo.dto.todo.TodoRequestDto;
 import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.events.TodoChangeFeed;
+import com.restapi.demo.exception.BadRequestException;
+import com.restapi.demo.service.TodoBatchService;
+import com.restapi.demo.service.TodoExportService;
+import com.restapi.demo.service.TodoImportService;
 import com.restapi.demo.service.TodoService;
+import com.restapi.demo.util.ETagUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,13 +26,25 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
+
+import static com.restapi.demo.util.AppConstants.MAX_CURSOR_PAGE_SIZE;
+import static com.restapi.demo.util.CursorUtils.decode;
+import static com.restapi.demo.util.CursorUtils.encode;
 
 @RestController
 @RequestMapping("/todos")
@@ -30,44 +55,216 @@ public class TodoController {
     @Autowired
     private final TodoService todoService;
 
-    @Operation(summary = "Get all todos")
+    private final TodoExportService todoExportService;
+
+    private final TodoBatchService todoBatchService;
+
+    private final TodoImportService todoImportService;
+
+    private final TodoChangeFeed todoChangeFeed;
+
+    private final ResponseBodyCache responseBodyCache;
+
+    @Operation(summary = "Get all todos",
+            description = "Optionally filtered by 'userId', 'completed' and 'createdAfter' (ISO date-time). "
+                    + "Answers 304 Not Modified when 'If-None-Match' matches the page's ETag.")
     @GetMapping
     public ResponseEntity<PaginatedResponse<TodoResponseDto>> getAllTodos(
+            @ParameterObject TodoFilterDto filter,
             @ParameterObject // This tells Swagger to render the pageable parameters correctly
             @PageableDefault(size = 10) // Optional: Set default values
             Pageable pageable,
-            HttpServletRequest request
+            HttpServletRequest request,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        Page<TodoResponseDto> todoPage = todoService.getAllTodos(filter, pageable);
+        // The page links are built from the request URL, so the cached bytes are only valid for the same URL.
+        String requestUrl = request.getRequestURL().toString();
+        if (responseBodyCache.writeCached(webRequest, todoPage, requestUrl)) {
+            return null; // Served from the bytes rendered for this cached page (200 or 304)
+        }
+        // Lists only get an ETag: their newest updatedAt doesn't change when a todo is deleted.
+        String eTag = ETagUtils.forPage(todoPage);
+        if (ETagUtils.checkNotModified(webRequest, eTag, -1)) {
+            return null; // 304 already written, the page is never wrapped or serialized
+        }
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(requestUrl);
+        PaginatedResponse<TodoResponseDto> response = new PaginatedResponse<>(todoPage, uriBuilder);
+
+        return responseBodyCache.writeAndCache(webRequest, todoPage, requestUrl, ResponseEntity.ok().eTag(eTag).body(response));
+    }
+
+    @Operation(summary = "Get todos using cursor pagination",
+            description = "Opt in by passing 'after' (empty for the first page). Pages are ordered by id, "
+                    + "cost the same at any depth and skip the total count; follow 'next_cursor' until it is absent.")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPaginatedResponse<TodoResponseDto>> getTodosAfterCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
     ) {
-        Page<TodoResponseDto> todoPage = todoService.getAllTodos(pageable);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Slice<TodoResponseDto> todoSlice = todoService.getTodosAfter(decode(after), pageSize);
+
+        List<TodoResponseDto> content = todoSlice.getContent();
+        String nextCursor = todoSlice.hasNext() ? encode(content.get(content.size() - 1).getId()) : null;
+        String eTag = ETagUtils.forTodos(content, pageSize, nextCursor);
+        if (ETagUtils.checkNotModified(webRequest, eTag, -1)) {
+            return null;
+        }
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
-        PaginatedResponse<TodoResponseDto> response = new PaginatedResponse<>(todoPage, uriBuilder);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(eTag)
+                .body(new CursorPaginatedResponse<>(content, pageSize, nextCursor, uriBuilder));
     }
 
-    @Operation(summary = "Get a todo by ID")
+    @Operation(summary = "Export all todos",
+            description = "Streams every todo as NDJSON (default) or CSV without buffering the result set in memory.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        TodoExportFormat exportFormat = TodoExportFormat.fromParam(format);
+        // The body is written on an async thread; the service opens its own read-only transactions there.
+        StreamingResponseBody body = outputStream -> todoExportService.exportTodos(exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"todos." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    @Operation(summary = "Stream todo changes",
+            description = "A Server-Sent Events feed of todo creations, updates and deletions, optionally only those "
+                    + "of 'userId', to use instead of polling. Every event's id is its sequence number: reconnect with "
+                    + "'Last-Event-ID' to get what was missed. A RESET event means that wasn't possible; reload the todos.")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(required = false) Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        Long lastSequence = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                lastSequence = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid Last-Event-ID: " + lastEventId);
+            }
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // Keeps reverse proxies like nginx from buffering the stream
+                .body(todoChangeFeed.subscribe(userId, lastSequence));
+    }
+
+    @Operation(summary = "Get a todo by ID",
+            description = "Answers 304 Not Modified when 'If-None-Match' or 'If-Modified-Since' shows the client's copy is current.")
     @GetMapping("/{id}")
-    public ResponseEntity<TodoResponseDto> getTodoById(@PathVariable Long id) {
-        return ResponseEntity.ok(todoService.getTodoById(id));
+    public ResponseEntity<TodoResponseDto> getTodoById(@PathVariable Long id, ServletWebRequest webRequest) throws IOException {
+        TodoResponseDto todo = todoService.getTodoById(id);
+        if (responseBodyCache.writeCached(webRequest, todo, null)) {
+            return null; // Served from the bytes rendered for this cached todo (200 or 304)
+        }
+        String eTag = ETagUtils.forTodo(todo);
+        long lastModified = ETagUtils.lastModified(todo);
+        if (ETagUtils.checkNotModified(webRequest, eTag, lastModified)) {
+            return null; // 304 already written, the todo is never serialized
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return responseBodyCache.writeAndCache(webRequest, todo, null, response.body(todo));
     }
 
     @Operation(summary = "Create a new todo")
     @PostMapping
     public ResponseEntity<TodoResponseDto> createTodo(@Valid @RequestBody TodoRequestDto todoRequestDto) {
         TodoResponseDto createdTodo = todoService.createTodo(todoRequestDto);
-        return new ResponseEntity<>(createdTodo, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETagUtils.forTodo(createdTodo)).body(createdTodo);
     }
 
-    @Operation(summary = "Update an existing todo")
+    @Operation(summary = "Update an existing todo",
+            description = "With 'If-Match' set to the todo's ETag, the update is only applied if the todo is unchanged "
+                    + "since it was read (412 Precondition Failed otherwise). It then runs as a single UPDATE and "
+                    + "answers 204 No Content with the new ETag, so the client can keep editing without re-reading.")
     @PutMapping("/{id}")
-    public ResponseEntity<TodoResponseDto> updateTodo(@PathVariable Long id, @Valid @RequestBody TodoRequestDto todoRequestDto) {
-        return ResponseEntity.ok(todoService.updateTodo(id, todoRequestDto));
+    public ResponseEntity<TodoResponseDto> updateTodo(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody TodoRequestDto todoRequestDto
+    ) {
+        Set<Long> expectedVersions = ETagUtils.parseTodoVersions(ifMatch, id);
+        if (expectedVersions != null) {
+            todoService.updateTodoIfMatch(id, expectedVersions, todoRequestDto);
+            ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+            // With several candidate tags we can't tell which one matched, so the client has to re-read.
+            if (expectedVersions.size() == 1) {
+                response.eTag(ETagUtils.forTodo(id, expectedVersions.iterator().next() + 1));
+            }
+            return response.build();
+        }
+        TodoResponseDto updatedTodo = todoService.updateTodo(id, todoRequestDto);
+        return ResponseEntity.ok().eTag(ETagUtils.forTodo(updatedTodo)).body(updatedTodo);
     }
 
-    @Operation(summary = "Delete a todo")
+    @Operation(summary = "Delete a todo",
+            description = "With 'If-Match' set to the todo's ETag, the todo is only deleted if it is unchanged "
+                    + "since it was read (412 Precondition Failed otherwise).")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodo(@PathVariable Long id) {
-        todoService.deleteTodo(id);
+    public ResponseEntity<Void> deleteTodo(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Set<Long> expectedVersions = ETagUtils.parseTodoVersions(ifMatch, id);
+        if (expectedVersions != null) {
+            todoService.deleteTodoIfMatch(id, expectedVersions);
+        } else {
+            todoService.deleteTodo(id);
+        }
         return ResponseEntity.noContent().build(); // HTTP 204 No Content
     }
+
+    @Operation(summary = "Create many todos at once",
+            description = "Items are validated individually and written in chunked, JDBC-batched transactions. "
+                    + "The response reports the outcome of every item in request order.")
+    @PostMapping("/batch")
+    public ResponseEntity<TodoBatchResponseDto> createTodos(@RequestBody List<TodoRequestDto> todoRequestDtos) {
+        return ResponseEntity.ok(todoBatchService.createTodos(todoRequestDtos));
+    }
+
+    @Operation(summary = "Partially update many todos at once")
+    @PatchMapping("/batch")
+    public ResponseEntity<TodoBatchResponseDto> updateTodos(@RequestBody List<TodoBatchUpdateDto> todoBatchUpdateDtos) {
+        return ResponseEntity.ok(todoBatchService.updateTodos(todoBatchUpdateDtos));
+    }
+
+    @Operation(summary = "Delete many todos at once")
+    @DeleteMapping("/batch")
+    public ResponseEntity<TodoBatchResponseDto> deleteTodos(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(todoBatchService.deleteTodos(ids));
+    }
+
+    @Operation(summary = "Import todos from an NDJSON or CSV upload",
+            description = "Send the file as the raw request body. The format is taken from 'format' or, if absent, "
+                    + "from the Content-Type (text/csv or application/x-ndjson). The upload is streamed and written "
+                    + "in batches; the response reports throughput and the errors of rejected lines.")
+    @PostMapping("/import")
+    public ResponseEntity<TodoImportResponseDto> importTodos(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request
+    ) throws IOException {
+        TodoExportFormat importFormat;
+        if (format != null) {
+            importFormat = TodoExportFormat.fromParam(format);
+        } else if (request.getContentType() != null
+                && MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TodoExportFormat.CSV.getMediaType())) {
+            importFormat = TodoExportFormat.CSV;
+        } else {
+            importFormat = TodoExportFormat.NDJSON;
+        }
+        // The raw body is read incrementally by the import pipeline, never buffered as a whole.
+        return ResponseEntity.ok(todoImportService.importTodos(importFormat, request.getInputStream()));
+    }
 }
\ No newline at end of file
@@ -1,17 +1,34 @@
 package com.restapi.demo.controller;
 
+import com.restapi.demo.cache.ResponseBodyCache;
+import com.restapi.demo.dto.PaginatedResponse;
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.todo.TodoStatsResponseDto;
 import com.restapi.demo.dto.user.UserRequestDto;
 import com.restapi.demo.dto.user.UserResponseDto;
+import com.restapi.demo.dto.user.UserStatsResponseDto;
+import com.restapi.demo.service.TodoService;
 import com.restapi.demo.service.UserService;
+import com.restapi.demo.service.UserStatsService;
+import com.restapi.demo.util.ETagUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/users")
@@ -21,10 +38,29 @@ public class UserController {
 
     private final UserService userService;
 
-    @Operation(summary = "Get all users")
+    private final UserStatsService userStatsService;
+
+    private final TodoService todoService;
+
+    private final ResponseBodyCache responseBodyCache;
+
+    @Operation(summary = "Get all users", description = "Paginated, ordered by id unless 'sort' is given.")
     @GetMapping
-    public ResponseEntity<List<UserResponseDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<PaginatedResponse<UserResponseDto>> getAllUsers(
+            @ParameterObject @PageableDefault(size = 10, sort = "id") Pageable pageable,
+            HttpServletRequest request
+    ) {
+        Page<UserResponseDto> userPage = userService.getAllUsers(pageable);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        return ResponseEntity.ok(new PaginatedResponse<>(userPage, uriBuilder));
+    }
+
+    @Operation(summary = "Get statistics over all users (admins only)",
+            description = "Total and active users, todo totals, completion ratio and the users with the most todos.")
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UserStatsResponseDto> getUserStats() {
+        return ResponseEntity.ok(userStatsService.getUserStats());
     }
 
     @Operation(summary = "Get a user by ID")
@@ -33,6 +69,38 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
+    @Operation(summary = "Get the todos of a user",
+            description = "Optionally filtered by 'completed' and 'createdAfter' (ISO date-time). "
+                    + "Answers 304 Not Modified when 'If-None-Match' matches the page's ETag.")
+    @GetMapping("/{id}/todos")
+    public ResponseEntity<PaginatedResponse<TodoResponseDto>> getUserTodos(
+            @PathVariable Long id,
+            @ParameterObject TodoFilterDto filter,
+            @ParameterObject @PageableDefault(size = 10) Pageable pageable,
+            HttpServletRequest request,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        Page<TodoResponseDto> todoPage = todoService.getTodosByUser(id, filter, pageable);
+        String requestUrl = request.getRequestURL().toString();
+        if (responseBodyCache.writeCached(webRequest, todoPage, requestUrl)) {
+            return null;
+        }
+        String eTag = ETagUtils.forPage(todoPage);
+        if (ETagUtils.checkNotModified(webRequest, eTag, -1)) {
+            return null;
+        }
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(requestUrl);
+        return responseBodyCache.writeAndCache(webRequest, todoPage, requestUrl,
+                ResponseEntity.ok().eTag(eTag).body(new PaginatedResponse<>(todoPage, uriBuilder)));
+    }
+
+    @Operation(summary = "Get the todo counts of a user",
+            description = "Total, completed and open todos, from counts kept up to date by every write instead of counting.")
+    @GetMapping("/{id}/todos/stats")
+    public ResponseEntity<TodoStatsResponseDto> getUserTodoStats(@PathVariable Long id) {
+        return ResponseEntity.ok(todoService.getTodoStatsByUser(id));
+    }
+
     @Operation(summary = "Create a new user")
     @PostMapping
     public ResponseEntity<UserResponseDto> createUser(@Valid @RequestBody UserRequestDto userRequestDto) {
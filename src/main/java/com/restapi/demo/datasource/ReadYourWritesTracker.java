@@ -0,0 +1,64 @@
+package com.restapi.demo.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers who wrote recently, so their reads stay on the primary until the replicas have caught up.
+ * A user whose read-write transaction committed within the window reads from the primary; everyone else
+ * reads from the replicas.
+ * Reads without a user (cache loads, the authentication lookup itself) may be shared with any user,
+ * so they go to the primary for a window after anybody's write.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile long lastWriteNanos;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+        this.lastWriteNanos = System.nanoTime() - windowNanos;
+    }
+
+    /**
+     * Records a committed write, by the given user or by nobody in particular if null.
+     */
+    public void recordWrite(String username) {
+        lastWriteNanos = System.nanoTime();
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether a read of the current user must go to the primary to see their own writes.
+     */
+    public boolean mustReadFromPrimary() {
+        String username = currentUsername();
+        if (username != null) {
+            return recentWriters.getIfPresent(username) != null;
+        }
+        return System.nanoTime() - lastWriteNanos < windowNanos;
+    }
+
+    /**
+     * The authenticated user of the current thread, or null if there is none.
+     */
+    static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
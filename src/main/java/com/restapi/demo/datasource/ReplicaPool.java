@@ -0,0 +1,114 @@
+package com.restapi.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The read replicas, handed out round-robin.
+ * A replica that fails to give a connection is ejected: it gets no reads until a health check can
+ * connect to it again. A pool that is exhausted counts as a failure too, so its reads move to the others.
+ */
+@Slf4j
+public class ReplicaPool implements DisposableBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong ejections = new AtomicLong();
+    private final ScheduledFuture<?> healthCheck;
+
+    public ReplicaPool(List<HikariDataSource> dataSources, TaskScheduler healthCheckScheduler,
+                       Duration healthCheckInterval, MeterRegistry meterRegistry) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.healthCheck = healthCheckScheduler.scheduleWithFixedDelay(this::checkHealth, healthCheckInterval);
+
+        Gauge.builder("app.datasource.replicas.healthy", this, ReplicaPool::healthyCount)
+                .description("Read replicas currently receiving reads")
+                .register(meterRegistry);
+        FunctionCounter.builder("app.datasource.replicas.ejections", ejections, AtomicLong::get)
+                .description("Times a read replica was taken out of rotation after a failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A connection to the next healthy replica, or null if every replica is ejected.
+     */
+    public Connection getConnection() {
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                eject(replica, e);
+            }
+        }
+        return null;
+    }
+
+    public int healthyCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Validates a connection of every replica: ejects the ones that fail and readmits the ones that pass.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection failed validation");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} passed its health check, readmitting it", replica.dataSource.getPoolName());
+                }
+            } catch (SQLException | RuntimeException e) {
+                eject(replica, e);
+            }
+        }
+    }
+
+    private void eject(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            ejections.incrementAndGet();
+            log.warn("Ejecting replica {} until it passes a health check: {}", replica.dataSource.getPoolName(),
+                    cause.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        healthCheck.cancel(false);
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
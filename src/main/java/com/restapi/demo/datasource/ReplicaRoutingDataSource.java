@@ -0,0 +1,63 @@
+package com.restapi.demo.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Where read-only transactions get their connection: a replica from the {@link ReplicaPool}, unless the
+ * {@link ReadYourWritesTracker} says the reader must see a recent write, or no replica is healthy.
+ * Then it is the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+    private final ReadYourWritesTracker tracker;
+    private final Counter replicaReads;
+    private final Counter recentWriteReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas, ReadYourWritesTracker tracker,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.tracker = tracker;
+        this.replicaReads = readCounter(meterRegistry, "replica", "replica");
+        this.recentWriteReads = readCounter(meterRegistry, "primary", "recent_write");
+        this.fallbackReads = readCounter(meterRegistry, "primary", "no_healthy_replica");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (tracker.mustReadFromPrimary()) {
+            recentWriteReads.increment();
+            return primary.getConnection();
+        }
+        Connection connection = replicas.getConnection();
+        if (connection == null) {
+            fallbackReads.increment();
+            return primary.getConnection();
+        }
+        replicaReads.increment();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the credentials of their pools");
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("app.datasource.reads")
+                .description("Connections taken by read-only transactions")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.restapi.demo.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Getter
+public class CursorMetadataResponse {
+
+    @JsonProperty("per_page")
+    private final int perPage;
+
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    @JsonProperty("next_page_url")
+    private final String nextPageUrl;
+
+    @JsonProperty("path")
+    private final String path;
+
+
+    /**
+     * Constructor to build the metadata of a cursor-paginated response.
+     * Unlike CustomMetadataResponse there is no total or page math, since cursor pages never run a count query.
+     * @param perPage The requested page size.
+     * @param nextCursor The cursor of the next page, or null if this is the last page.
+     * @param uriBuilder A UriComponentsBuilder seeded with the current request's path.
+     */
+    public CursorMetadataResponse(int perPage, String nextCursor, UriComponentsBuilder uriBuilder) {
+        this.perPage = perPage;
+        this.nextCursor = nextCursor;
+        this.nextPageUrl = nextCursor != null
+                ? uriBuilder.replaceQueryParam("after", nextCursor).replaceQueryParam("size", perPage).toUriString()
+                : null;
+        this.path = uriBuilder.replaceQuery(null).toUriString();
+    }
+}
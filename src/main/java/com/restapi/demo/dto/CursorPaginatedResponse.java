@@ -0,0 +1,23 @@
+package com.restapi.demo.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+@Getter
+public class CursorPaginatedResponse<T> {
+
+    @JsonProperty("content")
+    private final List<T> content;
+
+    @JsonProperty("metadata")
+    private final CursorMetadataResponse metadata;
+
+    public CursorPaginatedResponse(List<T> content, int perPage, String nextCursor, UriComponentsBuilder uriBuilder) {
+        this.content = content;
+        this.metadata = new CursorMetadataResponse(perPage, nextCursor, uriBuilder);
+    }
+}
@@ -0,0 +1,31 @@
+package com.restapi.demo.dto.todo;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a single item of a batch request, reported in request order.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoBatchItemResultDto {
+
+    // Position of the item in the request body.
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("error")
+    private String error;
+}
@@ -0,0 +1,32 @@
+package com.restapi.demo.dto.todo;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@JsonPropertyOrder({"total", "succeeded", "failed", "results"})
+public class TodoBatchResponseDto {
+
+    @JsonProperty("total")
+    private final int total;
+
+    @JsonProperty("succeeded")
+    private final int succeeded;
+
+    @JsonProperty("failed")
+    private final int failed;
+
+    @JsonProperty("results")
+    private final List<TodoBatchItemResultDto> results;
+
+    public TodoBatchResponseDto(List<TodoBatchItemResultDto> results) {
+        this.results = results;
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(TodoBatchItemResultDto::isSuccess).count();
+        this.failed = this.total - this.succeeded;
+    }
+}
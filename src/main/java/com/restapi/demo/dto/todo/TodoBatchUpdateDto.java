@@ -0,0 +1,24 @@
+package com.restapi.demo.dto.todo;
+
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * One item of a PATCH /todos/batch request. Only non-null fields are applied.
+ */
+@Data
+public class TodoBatchUpdateDto {
+
+    @NotNull(message = "Todo ID must be provided")
+    private Long id;
+
+    // Optional, but if present it must not be blank.
+    @Pattern(regexp = "(?s).*\\S.*", message = "Title cannot be blank")
+    private String title;
+
+    private String description;
+
+    private Boolean completed;
+}
@@ -0,0 +1,44 @@
+package com.restapi.demo.dto.todo;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event of the todo change feed. Only what the writer already had at hand is filled in: the full
+ * todo comes with single creates and updates, while batch and conditional writes carry the ids only.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoChangeEventDto {
+
+    // Also the SSE event id, i.e. what a reconnecting client sends back as Last-Event-ID.
+    @JsonProperty("sequence")
+    private Long sequence;
+
+    @JsonProperty("type")
+    private TodoChangeType type;
+
+    @JsonProperty("todo_id")
+    private Long todoId;
+
+    // Null when the writer didn't know the owner; such events go to every subscriber.
+    @JsonProperty("user_id")
+    private Long userId;
+
+    @JsonProperty("version")
+    private Long version;
+
+    @JsonProperty("todo")
+    private TodoResponseDto todo;
+
+    @JsonProperty("occurred_at")
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,14 @@
+package com.restapi.demo.dto.todo;
+
+/**
+ * The kinds of todo changes published on the change feed (GET /todos/changes).
+ */
+public enum TodoChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // A bulk import added an unknown set of todos; subscribers should reload what they display.
+    IMPORTED,
+    // Not a change: sent to a resuming subscriber whose missed events are no longer available. Reload.
+    RESET
+}
@@ -0,0 +1,40 @@
+package com.restapi.demo.dto.todo;
+
+import com.restapi.demo.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * The formats supported by the todo export and import endpoints.
+ */
+public enum TodoExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    TodoExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolves the 'format' request parameter (case-insensitive).
+     */
+    public static TodoExportFormat fromParam(String format) {
+        for (TodoExportFormat value : values()) {
+            if (value.fileExtension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new BadRequestException("Unsupported export format: " + format + " (expected 'ndjson' or 'csv')");
+    }
+}
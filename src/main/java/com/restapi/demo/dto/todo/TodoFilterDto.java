@@ -0,0 +1,32 @@
+package com.restapi.demo.dto.todo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for todo listings. Null fields are not filtered on.
+ * It is part of the page cache key, so its equals()/hashCode() must cover every field.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoFilterDto {
+
+    private Long userId;
+
+    private Boolean completed;
+
+    // Only todos created strictly after this instant, e.g. 2024-01-31T00:00:00.
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAfter;
+
+    public static TodoFilterDto none() {
+        return new TodoFilterDto();
+    }
+}
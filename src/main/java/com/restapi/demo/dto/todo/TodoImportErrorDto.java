@@ -0,0 +1,20 @@
+package com.restapi.demo.dto.todo;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoImportErrorDto {
+
+    // The (1-based) line of the input the rejected row started on.
+    @JsonProperty("line")
+    private long line;
+
+    @JsonProperty("error")
+    private String error;
+}
@@ -0,0 +1,50 @@
+package com.restapi.demo.dto.todo;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The final report of a todo import.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoImportResponseDto {
+
+    @JsonProperty("total_rows")
+    private long totalRows;
+
+    @JsonProperty("imported")
+    private long imported;
+
+    @JsonProperty("failed")
+    private long failed;
+
+    @JsonProperty("batch_size")
+    private int batchSize;
+
+    @JsonProperty("elapsed_ms")
+    private long elapsedMs;
+
+    // Throughput of the whole import, to help tune the batch size.
+    @JsonProperty("rows_per_second")
+    private double rowsPerSecond;
+
+    // Set if the input could not be read to the end (e.g. a broken upload or malformed CSV).
+    @JsonProperty("aborted")
+    private String aborted;
+
+    @JsonProperty("errors")
+    private List<TodoImportErrorDto> errors;
+
+    // True if more rows failed than are listed in 'errors'.
+    @JsonProperty("errors_truncated")
+    private boolean errorsTruncated;
+}
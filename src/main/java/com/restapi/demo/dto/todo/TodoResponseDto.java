@@ -2,12 +2,20 @@ package com.restapi.demo.dto.todo;
 
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Data
-public class TodoResponseDto {
+@NoArgsConstructor
+// The all-args constructor backs the "select new TodoResponseDto(...)" projections in TodoRepository,
+// so keep the field order in sync with them.
+@AllArgsConstructor
+// Serializable so it can be kept in the shared L2 cache (see TwoLevelCache).
+public class TodoResponseDto implements Serializable {
     @JsonProperty("id")
     private Long id;
 
@@ -31,4 +39,7 @@ public class TodoResponseDto {
 
     @JsonProperty("updated_at")
     private LocalDateTime updatedAt;
+
+    @JsonProperty("version")
+    private Long version; // Lets clients build the If-Match of a todo they got from a list
 }
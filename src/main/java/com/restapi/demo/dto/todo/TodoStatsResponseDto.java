@@ -0,0 +1,29 @@
+package com.restapi.demo.dto.todo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The todo counts of a user, read from the maintained todo_stats rather than counted.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoStatsResponseDto {
+
+    @JsonProperty("user_id")
+    private Long userId;
+
+    @JsonProperty("total")
+    private long total;
+
+    @JsonProperty("completed")
+    private long completed;
+
+    @JsonProperty("open")
+    private long open;
+}
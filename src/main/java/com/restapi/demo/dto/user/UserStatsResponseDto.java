@@ -0,0 +1,50 @@
+package com.restapi.demo.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Aggregates over all users and their todos, for admin dashboards.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserStatsResponseDto {
+
+    @JsonProperty("total_users")
+    private long totalUsers;
+
+    // Users with at least one todo created or updated since 'active_since'.
+    @JsonProperty("active_users")
+    private long activeUsers;
+
+    @JsonProperty("active_since")
+    private LocalDateTime activeSince;
+
+    @JsonProperty("total_todos")
+    private long totalTodos;
+
+    @JsonProperty("completed_todos")
+    private long completedTodos;
+
+    // completed_todos / total_todos, 0 without todos.
+    @JsonProperty("completion_ratio")
+    private double completionRatio;
+
+    @JsonProperty("average_todos_per_user")
+    private double averageTodosPerUser;
+
+    // The users with the most todos, most first.
+    @JsonProperty("top_users")
+    private List<UserTodoCountDto> topUsers;
+
+    @JsonProperty("elapsed_ms")
+    private long elapsedMs;
+}
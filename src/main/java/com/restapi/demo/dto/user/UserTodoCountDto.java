@@ -0,0 +1,25 @@
+package com.restapi.demo.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+// The all-args constructor backs the "select new UserTodoCountDto(...)" projection in TodoRepository.
+@AllArgsConstructor
+public class UserTodoCountDto {
+
+    @JsonProperty("user_id")
+    private Long userId;
+
+    @JsonProperty("username")
+    private String username;
+
+    @JsonProperty("todos")
+    private long todos;
+
+    @JsonProperty("completed")
+    private long completed;
+}
@@ -41,6 +41,11 @@ public class User implements UserDetails {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Todo> todos = new ArrayList<>();
 
+    // Optimistic locking: a concurrent update of the same user fails instead of silently overwriting.
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Enumerated(EnumType.STRING) // Tells JPA to store the role as a String (e.g., "USER") in the database
     private Role role;
 
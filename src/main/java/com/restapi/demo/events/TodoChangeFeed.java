@@ -0,0 +1,328 @@
+package com.restapi.demo.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.demo.dto.todo.TodoChangeEventDto;
+import com.restapi.demo.dto.todo.TodoChangeType;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The in-process bus behind GET /todos/changes. Writers publish todo changes, which are dispatched
+ * once their transaction has committed, numbered and fanned out to the SSE subscribers.
+ * <ul>
+ *     <li>Each event is serialized once, however many subscribers receive it.</li>
+ *     <li>Every subscriber has a bounded buffer drained by todoChangeFeedExecutor. Publishing never
+ *     blocks: a subscriber whose buffer is full is disconnected as a slow consumer.</li>
+ *     <li>The last events are kept for replay, so a client that reconnects with Last-Event-ID gets what
+ *     it missed. If that is no longer available, it gets a RESET event telling it to reload.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class TodoChangeFeed implements DisposableBean {
+
+    private final ObjectWriter eventWriter;
+    private final TaskExecutor sendExecutor;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final ScheduledFuture<?> heartbeat;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter published;
+    private final Counter slowConsumers;
+    private final Counter resets;
+
+    // Guards the sequence, the replay buffer and the fan-out, so a subscriber that is being added
+    // sees every event exactly once: either replayed or live.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<FeedMessage> replay = new ArrayDeque<>();
+    private long lastSequence;
+
+    public TodoChangeFeed(
+            ObjectMapper objectMapper,
+            @Qualifier("todoChangeFeedExecutor") TaskExecutor sendExecutor,
+            @Qualifier("todoChangeFeedHeartbeatScheduler") TaskScheduler heartbeatScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${application.todos.changes.buffer-size:256}") int bufferSize,
+            @Value("${application.todos.changes.replay-size:1000}") int replaySize,
+            @Value("${application.todos.changes.max-subscribers:1000}") int maxSubscribers,
+            @Value("${application.todos.changes.timeout:30m}") Duration timeout,
+            @Value("${application.todos.changes.heartbeat-interval:15s}") Duration heartbeatInterval
+    ) {
+        // One event per line: SSE data can't contain raw line breaks.
+        this.eventWriter = objectMapper.writerFor(TodoChangeEventDto.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.sendExecutor = sendExecutor;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        // Seeding with the start time keeps sequence numbers increasing across restarts, so a Last-Event-ID
+        // from before a restart is recognised as too old instead of being mistaken for a recent event.
+        this.lastSequence = System.currentTimeMillis() * 1000;
+        this.heartbeat = heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeatInterval);
+
+        this.published = Counter.builder("app.todo.changes.published")
+                .description("Todo change events dispatched to the change feed")
+                .register(meterRegistry);
+        this.slowConsumers = Counter.builder("app.todo.changes.disconnected")
+                .description("Change feed subscribers disconnected because they didn't keep up")
+                .tag("reason", "slow_consumer")
+                .register(meterRegistry);
+        this.resets = Counter.builder("app.todo.changes.resets")
+                .description("Resuming subscribers told to reload because their missed events were gone")
+                .register(meterRegistry);
+        Gauge.builder("app.todo.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the change of a todo the writer has fully at hand.
+     */
+    public void publish(TodoChangeType type, TodoResponseDto todo) {
+        publish(TodoChangeEventDto.builder()
+                .type(type)
+                .todoId(todo.getId())
+                .userId(todo.getUserId())
+                .version(todo.getVersion())
+                .todo(todo)
+                .build());
+    }
+
+    /**
+     * Publishes a change known by ids only. A null owner makes it go to every subscriber.
+     */
+    public void publish(TodoChangeType type, Long todoId, Long userId, Long version) {
+        publish(TodoChangeEventDto.builder()
+                .type(type)
+                .todoId(todoId)
+                .userId(userId)
+                .version(version)
+                .build());
+    }
+
+    /**
+     * Publishes an event. Inside a transaction it is held back until after commit,
+     * so subscribers never hear of changes that were rolled back.
+     */
+    public void publish(TodoChangeEventDto event) {
+        TodoChangeEventDto stamped = event.toBuilder().occurredAt(LocalDateTime.now()).build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(stamped);
+                }
+            });
+        } else {
+            dispatch(stamped);
+        }
+    }
+
+    /**
+     * Opens a change feed connection, optionally limited to the todos of one user.
+     * With a Last-Event-ID, the events published after it are replayed first.
+     *
+     * @throws ServiceUnavailableException if too many connections are open
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, userId);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // Checked and added under the lock, so concurrent subscribes can't all pass the check.
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ServiceUnavailableException("Too many change feed connections, please retry later", 30);
+            }
+            if (lastEventId != null) {
+                replayTo(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.cancel(false);
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private void dispatch(TodoChangeEventDto event) {
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            FeedMessage message = new FeedMessage(sequence, event.getUserId(),
+                    eventWriter.writeValueAsString(event.toBuilder().sequence(sequence).build()));
+            replay.addLast(message);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(message);
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize todo change event {}", event, e);
+            return;
+        } finally {
+            lock.unlock();
+        }
+        published.increment();
+    }
+
+    // Called with the lock held.
+    private void replayTo(Subscriber subscriber, long lastEventId) {
+        long oldestAvailable = replay.isEmpty() ? lastSequence + 1 : replay.getFirst().sequence();
+        List<FeedMessage> missed = replay.stream()
+                .filter(message -> message.sequence() > lastEventId && subscriber.accepts(message))
+                .toList();
+        if (lastEventId < oldestAvailable - 1 || lastEventId > lastSequence || missed.size() > bufferSize) {
+            resets.increment();
+            subscriber.offer(resetMessage());
+        } else {
+            missed.forEach(subscriber::offer);
+        }
+    }
+
+    private FeedMessage resetMessage() {
+        try {
+            return new FeedMessage(null, null, eventWriter.writeValueAsString(TodoChangeEventDto.builder()
+                    .type(TodoChangeType.RESET)
+                    .occurredAt(LocalDateTime.now())
+                    .build()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the reset event", e);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(FeedMessage.HEARTBEAT);
+        }
+    }
+
+    /**
+     * An event as sent on the wire. Only numbered events carry an SSE id, so a RESET or a heartbeat
+     * doesn't move the client's Last-Event-ID.
+     */
+    private record FeedMessage(Long sequence, Long userId, String data) {
+
+        static final FeedMessage HEARTBEAT = new FeedMessage(null, null, null);
+
+        SseEmitter.SseEventBuilder toSseEvent() {
+            if (data == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().data(data, MediaType.TEXT_PLAIN);
+            return sequence != null ? event.id(String.valueOf(sequence)) : event;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final BlockingQueue<FeedMessage> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long userId) {
+            this.emitter = emitter;
+            this.userId = userId;
+        }
+
+        boolean accepts(FeedMessage message) {
+            return userId == null || message.userId() == null || userId.equals(message.userId());
+        }
+
+        void offer(FeedMessage message) {
+            if (closed.get() || !accepts(message)) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                // Rather than buffer without bound, let it go; it can resume from its Last-Event-ID.
+                slowConsumers.increment();
+                log.debug("Disconnecting a change feed subscriber that fell {} events behind", bufferSize);
+                close();
+                return;
+            }
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::sendBuffered);
+                } catch (TaskRejectedException e) {
+                    sending.set(false);
+                    close();
+                }
+            }
+        }
+
+        private void sendBuffered() {
+            try {
+                FeedMessage message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    emitter.send(message.toSseEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away (or the emitter already completed).
+                close();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A message offered after the last poll but before the flag was cleared would otherwise wait.
+            if (!buffer.isEmpty()) {
+                scheduleSend();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.restapi.demo.mapper;
 
+import com.restapi.demo.dto.todo.TodoBatchUpdateDto;
 import com.restapi.demo.dto.todo.TodoRequestDto;
 import com.restapi.demo.dto.todo.TodoResponseDto;
 import com.restapi.demo.entity.Todo;
@@ -11,13 +12,28 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 
 @Mapper(componentModel = "spring", uses = TodoMapper.class)
 public interface TodoMapper {
-    // Maps the User object within the Todo entity to the DTO fields
+    // Maps the User object within the Todo entity to the DTO fields.
+    // Reading user.username initializes the lazy user, so callers must fetch it with the todo
+    // (see TodoRepository.findWithUserById) to avoid one query per row. Reads that don't need the entity
+    // skip this mapping: TodoRepository.findProjectedById and findAllProjected select the DTO directly.
     @Mapping(source = "user.id", target = "userId")
-//    @Mapping(source = "user.username", target = "username")
+    @Mapping(source = "user.username", target = "username")
     TodoResponseDto toTodoResponseDto(Todo todo);
 
     // This method is used for updating an existing entity from a DTO.
     // It ignores null properties in the DTO, so you can update just one field.
+    // The @Version is only ever advanced by Hibernate, never copied from a request.
+    @Mapping(target = "version", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateTodoFromDto(TodoRequestDto dto, @MappingTarget Todo entity);
+
+    // Same as above for one item of a batch update; the id only identifies the row to update.
+    // The owner and the timestamps are never changed through a batch item.
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void updateTodoFromBatchDto(TodoBatchUpdateDto dto, @MappingTarget Todo entity);
 }
\ No newline at end of file
@@ -12,7 +12,8 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 @Mapper(componentModel = "spring", uses = UserMapper.class)
 public interface UserMapper {
 
-    // Maps a request DTO to a User entity for creation.
+    // Maps a request DTO to a User entity for creation. The @Version is set by Hibernate on persist.
+    @Mapping(target = "version", ignore = true)
     User toUser(UserRequestDto requestDto);
 
     // Maps a User entity to a response DTO. The password is automatically excluded.
@@ -22,6 +23,7 @@ public interface UserMapper {
     // Ignores null fields in the DTO, allowing for partial updates.
     // CRITICALLY, it ignores the password field to prevent accidental changes via this method.
     @Mapping(target = "password", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateUserFromDto(UserRequestDto dto, @MappingTarget User entity);
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package com.restapi.demo.partition;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.exception.BadRequestException;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.stats.TodoStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.NullOrdering;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NullPrecedence;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The todo read paths, over however many partitions there are.
+ * A read for one user, or for one todo, runs against a single partition in the caller's transaction
+ * (or a read-only one of its own). Listings across all users are scatter-gathered: every partition is
+ * queried in parallel on todoPartitionQueryExecutor, in its own read-only transaction, and the results
+ * are merged in memory. Callers of those must therefore not hold a transaction (and its connection)
+ * while they wait.
+ */
+@Component
+public class PartitionedTodoReader {
+
+    // The sort properties listings accept: paths on the Todo entity, for the ORDER BY, mapped to the same
+    // value on the DTO, for merging the partitions' rows. The owner's columns are flattened in the DTO.
+    private static final Map<String, Function<TodoResponseDto, Comparable<?>>> SORT_PROPERTIES = Map.of(
+            "id", TodoResponseDto::getId,
+            "title", TodoResponseDto::getTitle,
+            "description", TodoResponseDto::getDescription,
+            "completed", TodoResponseDto::isCompleted,
+            "createdAt", TodoResponseDto::getCreatedAt,
+            "updatedAt", TodoResponseDto::getUpdatedAt,
+            "version", TodoResponseDto::getVersion,
+            "user.id", TodoResponseDto::getUserId,
+            "user.username", TodoResponseDto::getUsername
+    );
+
+    private final TodoRepository todoRepository;
+    private final TodoPartitions partitions;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AsyncTaskExecutor queryExecutor;
+    private final TodoStats todoStats;
+    private final boolean statsPageTotals;
+    private final long maxOffset;
+    private final NullOrdering nullOrdering;
+
+    public PartitionedTodoReader(
+            TodoRepository todoRepository,
+            TodoPartitions partitions,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("todoPartitionQueryExecutor") AsyncTaskExecutor queryExecutor,
+            TodoStats todoStats,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${application.todos.stats.page-totals:false}") boolean statsPageTotals,
+            @Value("${application.todos.partitions.max-offset:10000}") long maxOffset
+    ) {
+        this.todoRepository = todoRepository;
+        this.partitions = partitions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryExecutor = queryExecutor;
+        this.todoStats = todoStats;
+        this.statsPageTotals = statsPageTotals;
+        this.maxOffset = maxOffset;
+        this.nullOrdering = nullOrdering(entityManagerFactory.unwrap(SessionFactoryImplementor.class));
+    }
+
+    /**
+     * A page of the filtered todos. With a userId in the filter only that user's partition is read.
+     * Otherwise each partition returns its first offset + size rows and the merged rows are paged again,
+     * so deep pages cost every partition more; the cursor listing (findProjectedAfter) doesn't have that problem.
+     * Pages starting past application.todos.partitions.max-offset are therefore refused when partitioned.
+     * The rows are merged in Java's order of the sort properties, which for text can differ from the
+     * database's collation. Nulls are placed where the database puts them.
+     * With application.todos.stats.page-totals the total comes from the todo stats instead of COUNT(*)
+     * whenever they can answer the filter (any filter but createdAfter). It is then read a moment apart from
+     * the page, so under concurrent writes the two can briefly disagree by those writes.
+     *
+     * @throws BadRequestException if the todos can't be sorted by one of the sort properties,
+     *                             or the page starts past the maximum offset of a listing across partitions
+     */
+    public Page<TodoResponseDto> findAllProjected(TodoFilterDto filter, Pageable pageable) {
+        // Ties are broken by id, in the partitions and in the merge alike, so pages don't overlap.
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        // Built whether partitioned or not, so a sort property is accepted or refused the same way either way.
+        Comparator<TodoResponseDto> comparator = comparator(sort);
+        boolean maintainedTotal = statsPageTotals && filter.getCreatedAfter() == null;
+        if (!partitions.isPartitioned() || filter.getUserId() != null) {
+            return readOnly(() -> {
+                if (filter.getUserId() != null) {
+                    partitions.bindToUser(filter.getUserId());
+                }
+                return maintainedTotal
+                        ? todoRepository.findAllProjected(filter, pageable, () -> todoStats.count(filter))
+                        : todoRepository.findAllProjected(filter, pageable);
+            });
+        }
+        if (pageable.isPaged() && pageable.getOffset() > maxOffset) {
+            throw new BadRequestException("Todos of all users can't be paged past row " + maxOffset
+                    + ", page through them with 'after' instead");
+        }
+        Pageable partitionPageable = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        // With the maintained total the partitions skip their counts; their totals are then ignored.
+        List<Page<TodoResponseDto>> pages = scatter(partition -> maintainedTotal
+                ? todoRepository.findAllProjected(filter, partitionPageable, () -> 0)
+                : todoRepository.findAllProjected(filter, partitionPageable));
+
+        List<TodoResponseDto> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(comparator)
+                .toList();
+        long total = maintainedTotal
+                ? readOnly(() -> todoStats.count(filter))
+                : pages.stream().mapToLong(Page::getTotalElements).sum();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(merged, pageable, total);
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(merged.subList(from, to), pageable, total);
+    }
+
+    public Optional<TodoResponseDto> findProjectedById(Long id) {
+        return readOnly(() -> {
+            if (partitions.isPartitioned()) {
+                Integer partition = partitions.locate(List.of(id)).get(id);
+                if (partition == null) {
+                    return Optional.empty();
+                }
+                partitions.bind(partition);
+            }
+            return todoRepository.findProjectedById(id);
+        });
+    }
+
+    /**
+     * The todos with an id above afterId, in id order: the first {@code limit} of each partition, merged.
+     */
+    public List<TodoResponseDto> findProjectedAfter(Long afterId, Limit limit) {
+        if (!partitions.isPartitioned()) {
+            return readOnly(() -> todoRepository.findProjectedAfter(afterId, limit));
+        }
+        return scatter(partition -> todoRepository.findProjectedAfter(afterId, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(TodoResponseDto::getId))
+                .limit(limit.max())
+                .toList();
+    }
+
+    /**
+     * Runs the query against every partition in parallel, each in a read-only transaction bound to it.
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        List<CompletableFuture<T>> futures = partitions.all().stream()
+                .map(partition -> queryExecutor.submitCompletable(() -> readOnlyTransaction.execute(status -> {
+                    partitions.bind(partition);
+                    return query.apply(partition);
+                })))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    // Orders DTOs like the ORDER BY the partitions ran, with nulls where the database puts them.
+    private Comparator<TodoResponseDto> comparator(Sort sort) {
+        Comparator<TodoResponseDto> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<TodoResponseDto, Comparable<?>> property = SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new BadRequestException("Todos can't be sorted by '" + order.getProperty()
+                        + "', use one of " + SORT_PROPERTIES.keySet());
+            }
+            Comparator<Comparable<Object>> values = Comparator.naturalOrder();
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            values = nullsFirst(order) ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            @SuppressWarnings("unchecked")
+            Comparator<TodoResponseDto> next = Comparator.comparing(
+                    dto -> (Comparable<Object>) property.apply(dto), values);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private boolean nullsFirst(Sort.Order order) {
+        return switch (order.getNullHandling()) {
+            case NULLS_FIRST -> true;
+            case NULLS_LAST -> false;
+            case NATIVE -> switch (nullOrdering) {
+                case FIRST -> true;
+                case LAST -> false;
+                case SMALLEST -> order.isAscending();
+                case GREATEST -> order.isDescending();
+            };
+        };
+    }
+
+    // Where the ORDER BY puts nulls unless the sort says otherwise: Hibernate's
+    // hibernate.order_by.default_null_ordering if set, else the database's own ordering
+    // (smallest on H2 and MySQL, greatest on PostgreSQL and Oracle).
+    private static NullOrdering nullOrdering(SessionFactoryImplementor sessionFactory) {
+        NullPrecedence defaultPrecedence = sessionFactory.getSessionFactoryOptions().getDefaultNullPrecedence();
+        if (defaultPrecedence == NullPrecedence.FIRST) {
+            return NullOrdering.FIRST;
+        }
+        if (defaultPrecedence == NullPrecedence.LAST) {
+            return NullOrdering.LAST;
+        }
+        return sessionFactory.getJdbcServices().getDialect().getNullOrdering();
+    }
+}
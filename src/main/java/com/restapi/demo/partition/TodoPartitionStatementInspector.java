@@ -0,0 +1,45 @@
+package com.restapi.demo.partition;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Points every SQL statement Hibernate sends for the todos table at the table of the partition the current
+ * transaction is bound to. A statement on todos outside a bound transaction is a bug (it would read or write
+ * the unpartitioned table), so it fails instead of running.
+ * Partition tables named explicitly (todos_4_1, ...) are left alone, as are the todos_seq sequence and the
+ * leading comment Hibernate adds with hibernate.use_sql_comments.
+ */
+public class TodoPartitionStatementInspector implements StatementInspector {
+
+    private static final Pattern TODOS_TABLE = Pattern.compile("\\btodos\\b");
+
+    private final int count;
+
+    public TodoPartitionStatementInspector(int count) {
+        this.count = count;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int start = sql.startsWith("/*") ? sql.indexOf("*/") + 2 : 0;
+        Matcher matcher = TODOS_TABLE.matcher(sql);
+        if (!matcher.find(start)) {
+            return sql;
+        }
+        Integer partition = TodoPartitions.boundPartition();
+        if (partition == null) {
+            throw new IllegalStateException("SQL on the todos table outside a transaction bound to a todo partition: " + sql);
+        }
+        String table = TodoPartitions.tableName(count, partition);
+        StringBuilder rewritten = new StringBuilder(sql.length() + 8);
+        matcher.region(start, sql.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(rewritten, table);
+        }
+        matcher.appendTail(rewritten);
+        return rewritten.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.restapi.demo.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the partition tables of a layout if they don't exist yet, including those of the configured layout
+ * at startup (after the schema has been set up, before requests are served).
+ * Each one is a copy of the todos table: same columns, foreign key and indexes. Keep it in sync with schema.sql.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoPartitionTables implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoPartitions partitions;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (partitions.isPartitioned()) {
+            createIfMissing(partitions.count());
+        }
+    }
+
+    public void createIfMissing(int count) {
+        if (count == 1) {
+            return; // The todos table belongs to schema.sql
+        }
+        for (int partition = 0; partition < count; partition++) {
+            String table = TodoPartitions.tableName(count, partition);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "id BIGINT NOT NULL, "
+                    + "title VARCHAR(255) NOT NULL, "
+                    + "description VARCHAR(255), "
+                    + "completed BOOLEAN NOT NULL, "
+                    + "user_id BIGINT NOT NULL, "
+                    + "created_at TIMESTAMP, "
+                    + "updated_at TIMESTAMP, "
+                    + "version BIGINT DEFAULT 0 NOT NULL, "
+                    + "PRIMARY KEY (id), "
+                    + "CONSTRAINT fk_" + table + "_users FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            createIndex(table, "user_completed_created", "user_id, completed, created_at");
+            createIndex(table, "user_created", "user_id, created_at");
+            createIndex(table, "completed_created", "completed, created_at");
+            createIndex(table, "created_at", "created_at");
+        }
+        log.info("Todo partition tables {} .. {} are in place",
+                TodoPartitions.tableName(count, 0), TodoPartitions.tableName(count, count - 1));
+    }
+
+    private void createIndex(String table, String name, String columns) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + name + " ON " + table + " (" + columns + ")");
+    }
+}
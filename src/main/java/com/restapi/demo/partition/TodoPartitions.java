@@ -0,0 +1,158 @@
+package com.restapi.demo.partition;
+
+import com.restapi.demo.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The layout of the todo storage, set by application.todos.partitions.count.
+ * With one partition every todo lives in the todos table. With N partitions they are hashed on their owner
+ * (user_id mod N) over the tables todos_N_0 .. todos_N_{N-1}, and each transaction that touches todos is
+ * bound to one of them: {@link TodoPartitionStatementInspector} then points its SQL at that partition's table.
+ * Work spanning several partitions runs as one transaction per partition (see {@link PartitionedTodoReader}).
+ */
+@Component
+public class TodoPartitions {
+
+    private static final Object PARTITION_KEY = TodoPartitions.class.getName() + ".partition";
+
+    private final int count;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TodoPartitions(@Value("${application.todos.partitions.count:1}") int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("application.todos.partitions.count must be at least 1, got " + count);
+        }
+        this.count = count;
+    }
+
+    /**
+     * The table of one partition of the layout with the given number of partitions.
+     * A single partition is the todos table itself.
+     */
+    public static String tableName(int count, int partition) {
+        return count == 1 ? "todos" : "todos_" + count + "_" + partition;
+    }
+
+    public static int partitionOf(long userId, int count) {
+        return (int) Math.floorMod(userId, (long) count);
+    }
+
+    public boolean isPartitioned() {
+        return count > 1;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(Long userId) {
+        return partitionOf(userId, count);
+    }
+
+    public String tableOf(int partition) {
+        return tableName(count, partition);
+    }
+
+    public List<Integer> all() {
+        return IntStream.range(0, count).boxed().toList();
+    }
+
+    /**
+     * Binds the current transaction to a partition, for the rest of the transaction.
+     * Does nothing when todos aren't partitioned.
+     */
+    public void bind(int partition) {
+        if (!isPartitioned()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Todo partitions can only be bound to a transaction");
+        }
+        Integer bound = boundPartition();
+        if (bound != null) {
+            if (bound != partition) {
+                throw new IllegalStateException("This transaction is bound to todo partition " + bound
+                        + " and can't also use partition " + partition);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PARTITION_KEY, partition);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PARTITION_KEY);
+            }
+        });
+    }
+
+    /**
+     * Binds the current transaction to the partition holding the todos of the user.
+     */
+    public void bindToUser(Long userId) {
+        if (isPartitioned()) {
+            bind(partitionOf(userId));
+        }
+    }
+
+    /**
+     * Binds the current transaction to the partition holding the todo.
+     *
+     * @throws ResourceNotFoundException if todos are partitioned and there is no such todo
+     */
+    public void bindToTodo(Long id) {
+        if (!isPartitioned()) {
+            return;
+        }
+        Map<Long, Integer> partitions = locate(List.of(id));
+        if (!partitions.containsKey(id)) {
+            throw new ResourceNotFoundException("Todo not found with id: " + id);
+        }
+        bind(partitions.get(id));
+    }
+
+    /**
+     * Finds the partition of each todo that exists, with one query probing the primary key of every partition.
+     * It reads the partition tables by name, so it can run before the transaction is bound.
+     */
+    public Map<Long, Integer> locate(Collection<Long> ids) {
+        if (!isPartitioned()) {
+            return ids.stream().distinct().collect(Collectors.toMap(id -> id, id -> 0));
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        String sql = all().stream()
+                .map(partition -> "select id, " + partition + " from " + tableOf(partition) + " where id in (:ids)")
+                .collect(Collectors.joining(" union all "));
+        List<?> rows = entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, Integer> partitions = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            partitions.put(((Number) columns[0]).longValue(), ((Number) columns[1]).intValue());
+        }
+        return partitions;
+    }
+
+    /**
+     * The partition the current transaction is bound to, or null.
+     */
+    public static Integer boundPartition() {
+        return (Integer) TransactionSynchronizationManager.getResource(PARTITION_KEY);
+    }
+}
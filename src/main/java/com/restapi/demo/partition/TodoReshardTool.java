@@ -0,0 +1,118 @@
+package com.restapi.demo.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies every todo from one partition layout into another, e.g. from the todos table into 4 partitions
+ * (1 -> 4) or from 4 partitions into 8. Rows keep their ids, so cached entries and ETags stay valid.
+ * <p>
+ * Setting application.todos.partitions.reshard-from runs it at startup, from that layout into the configured
+ * one, before requests are served; remove the property again afterwards. Todos must not be written by other
+ * instances while it runs. The source tables are left as they were, to be dropped once the new layout is
+ * in use. The target tables are emptied first, so an interrupted run can simply be started again.
+ */
+@Slf4j
+@Component
+public class TodoReshardTool implements SmartInitializingSingleton {
+
+    private static final String COLUMNS = "id, title, description, completed, user_id, created_at, updated_at, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoPartitions partitions;
+    private final TodoPartitionTables tables;
+    private final TransactionTemplate transactionTemplate;
+    private final int reshardFrom;
+    private final int batchSize;
+
+    public TodoReshardTool(
+            JdbcTemplate jdbcTemplate,
+            TodoPartitions partitions,
+            TodoPartitionTables tables,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.todos.partitions.reshard-from:0}") int reshardFrom,
+            @Value("${application.todos.partitions.reshard-batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitions = partitions;
+        this.tables = tables;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reshardFrom = reshardFrom;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reshardFrom > 0) {
+            reshard(reshardFrom, partitions.count());
+        }
+    }
+
+    /**
+     * Copies the todos of the {@code fromCount} layout into the {@code toCount} layout, in batches of ids,
+     * each batch in its own transaction, and checks that both layouts end up with the same number of rows.
+     *
+     * @return the number of todos copied into each target partition
+     */
+    public List<Long> reshard(int fromCount, int toCount) {
+        if (fromCount == toCount) {
+            throw new IllegalArgumentException("Todos are already in " + toCount + " partition(s)");
+        }
+        log.info("Resharding todos from {} into {} partition(s)", fromCount, toCount);
+        tables.createIfMissing(toCount);
+        for (int target = 0; target < toCount; target++) {
+            jdbcTemplate.update("DELETE FROM " + TodoPartitions.tableName(toCount, target));
+        }
+
+        for (int source = 0; source < fromCount; source++) {
+            String sourceTable = TodoPartitions.tableName(fromCount, source);
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                // The ids of the next batch, walked along the primary key.
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM " + sourceTable + " WHERE id > ? ORDER BY id FETCH FIRST " + batchSize + " ROWS ONLY",
+                        Long.class, lastId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long fromId = lastId;
+                long toId = ids.get(ids.size() - 1);
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int target = 0; target < toCount; target++) {
+                        jdbcTemplate.update("INSERT INTO " + TodoPartitions.tableName(toCount, target) + " (" + COLUMNS + ") "
+                                        + "SELECT " + COLUMNS + " FROM " + sourceTable
+                                        + " WHERE id > ? AND id <= ? AND MOD(user_id, " + toCount + ") = ?",
+                                fromId, toId, target);
+                    }
+                });
+                lastId = toId;
+            }
+        }
+
+        long sourceRows = countRows(fromCount).stream().mapToLong(Long::longValue).sum();
+        List<Long> targetRows = countRows(toCount);
+        long copied = targetRows.stream().mapToLong(Long::longValue).sum();
+        if (copied != sourceRows) {
+            throw new IllegalStateException("Resharding copied " + copied + " todos but the source has " + sourceRows
+                    + "; were todos written while it ran?");
+        }
+        log.info("Resharded {} todos into {} partition(s): {}", copied, toCount, targetRows);
+        return targetRows;
+    }
+
+    private List<Long> countRows(int count) {
+        List<Long> rows = new ArrayList<>(count);
+        for (int partition = 0; partition < count; partition++) {
+            rows.add(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TodoPartitions.tableName(count, partition), Long.class));
+        }
+        return rows;
+    }
+}
@@ -1,8 +1,113 @@
 package com.restapi.demo.repository;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.user.UserTodoCountDto;
 import com.restapi.demo.entity.Todo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoRepositoryCustom {
+
+    // Filtered/paginated listings are built dynamically in TodoRepositoryCustomImpl.findAllProjected.
+    // Read paths select straight into TodoResponseDto (joined with the owner's username) instead of
+    // loading managed entities: only the response columns are read, and Hibernate creates no entity
+    // instances, proxies or dirty-checking snapshots.
+    String TODO_RESPONSE_PROJECTION = "select new com.restapi.demo.dto.todo.TodoResponseDto("
+            + "t.id, t.title, t.description, t.completed, u.id, u.username, t.createdAt, t.updatedAt, t.version) "
+            + "from Todo t join t.user u";
+
+    @Query(TODO_RESPONSE_PROJECTION + " where t.id = :id")
+    Optional<TodoResponseDto> findProjectedById(@Param("id") Long id);
+
+    // Keyset (seek) pagination: "WHERE id > ? ORDER BY id LIMIT ?" walks the primary key index,
+    // so every page costs the same no matter how deep it is, and no COUNT(*) is needed.
+    @Query(TODO_RESPONSE_PROJECTION + " where t.id > :id order by t.id")
+    List<TodoResponseDto> findProjectedAfter(@Param("id") Long id, Limit limit);
+
+    // Loads a todo together with its owner, for write paths that map the result.
+    @EntityGraph(attributePaths = "user")
+    @Query("select t from Todo t where t.id = :id")
+    Optional<Todo> findWithUserById(@Param("id") Long id);
+
+    // The owner and completed flag of existing todos, without loading them, for the todo stats of writes that
+    // don't load the entity either (unconditional and batch deletes). The rows stay locked until the transaction
+    // ends, so they can't change in between. Doubles as the existence check of those deletes.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id as id, t.user.id as userId, t.completed as completed from Todo t where t.id in :ids")
+    List<TodoStatsKey> findStatsKeysForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Conditional update for If-Match: applied only if the row is still at one of the expected versions,
+    // in a single statement with no select before it. A change of completed is counted by the one
+    // stats statement that precedes it (TodoStats.applyCompletedIfVersionIn). Null values keep the current
+    // ones, like TodoMapper.updateTodoFromDto. Bulk updates skip @PreUpdate and @Version, so both are set here.
+    @Modifying
+    @Query("update Todo t set t.title = coalesce(:title, t.title), t.description = coalesce(:description, t.description), "
+            + "t.completed = coalesce(:completed, t.completed), t.updatedAt = :updatedAt, t.version = t.version + 1 "
+            + "where t.id = :id and t.version in :versions")
+    int updateIfVersionIn(@Param("id") Long id, @Param("versions") Collection<Long> versions,
+                          @Param("title") String title, @Param("description") String description,
+                          @Param("completed") Boolean completed, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Conditional delete for If-Match, in a single statement (counted by TodoStats.applyDeleteIfVersionIn).
+    @Modifying
+    @Query("delete from Todo t where t.id = :id and t.version in :versions")
+    int deleteIfVersionIn(@Param("id") Long id, @Param("versions") Collection<Long> versions);
+
+    // Totals of the todos whose owners' ids lie in [fromUserId, toUserId], for the admin statistics.
+    // They run once per id range (and partition) in parallel; user_id is the leading column of the
+    // user indexes, so each one only reads its own slice.
+    @Query("select count(t) as todos, sum(case when t.completed = true then 1 else 0 end) as completed, "
+            + "count(distinct case when t.updatedAt >= :activeSince then t.user.id end) as activeUsers "
+            + "from Todo t where t.user.id between :fromUserId and :toUserId")
+    TodoTotals countTotalsByUserIdBetween(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId,
+                                          @Param("activeSince") LocalDateTime activeSince);
+
+    // The users with the most todos in [fromUserId, toUserId].
+    @Query("select new com.restapi.demo.dto.user.UserTodoCountDto(u.id, u.username, count(t), "
+            + "sum(case when t.completed = true then 1 else 0 end)) "
+            + "from Todo t join t.user u where u.id between :fromUserId and :toUserId "
+            + "group by u.id, u.username order by count(t) desc, u.id")
+    List<UserTodoCountDto> findTopOwnersByUserIdBetween(@Param("fromUserId") Long fromUserId,
+                                                        @Param("toUserId") Long toUserId, Limit limit);
+
+    // The actual todo counts of the given users (those without todos are missing), for TodoStatsReconciler.
+    @Query("select t.user.id as userId, count(t) as todos, sum(case when t.completed = true then 1 else 0 end) as completed "
+            + "from Todo t where t.user.id in :userIds group by t.user.id")
+    List<UserTodoTotals> countTotalsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    interface TodoStatsKey {
+        Long getId();
+
+        Long getUserId();
+
+        boolean isCompleted();
+    }
+
+    interface UserTodoTotals {
+        Long getUserId();
+
+        long getTodos();
+
+        long getCompleted();
+    }
+
+    interface TodoTotals {
+        long getTodos();
+
+        Long getCompleted(); // null when there are no todos
+
+        long getActiveUsers();
+    }
 }
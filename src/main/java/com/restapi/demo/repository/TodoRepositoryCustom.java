@@ -0,0 +1,18 @@
+package com.restapi.demo.repository;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Queries of TodoRepository that are built dynamically and therefore implemented by hand.
+ */
+public interface TodoRepositoryCustom {
+    Page<TodoResponseDto> findAllProjected(TodoFilterDto filter, Pageable pageable);
+
+    // The same, with the total taken from the given supplier (if needed) instead of a count query.
+    Page<TodoResponseDto> findAllProjected(TodoFilterDto filter, Pageable pageable, LongSupplier total);
+}
@@ -0,0 +1,74 @@
+package com.restapi.demo.repository;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lists todos as DTO projections, filtered by whichever filter fields are set.
+     * Only the predicates that are actually used end up in the WHERE clause (rather than
+     * "(:param is null or ...)"), so each filter combination gets its own plan and can use the
+     * matching composite index on todos (see schema.sql).
+     */
+    @Override
+    public Page<TodoResponseDto> findAllProjected(TodoFilterDto filter, Pageable pageable) {
+        return findAllProjected(filter, pageable, null);
+    }
+
+    @Override
+    public Page<TodoResponseDto> findAllProjected(TodoFilterDto filter, Pageable pageable, LongSupplier total) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.getUserId() != null) {
+            appendPredicate(where, "t.user.id = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        if (filter.getCompleted() != null) {
+            appendPredicate(where, "t.completed = :completed");
+            parameters.put("completed", filter.getCompleted());
+        }
+        if (filter.getCreatedAfter() != null) {
+            appendPredicate(where, "t.createdAt > :createdAfter");
+            parameters.put("createdAfter", filter.getCreatedAfter());
+        }
+
+        String selectJpql = QueryUtils.applySorting(TodoRepository.TODO_RESPONSE_PROJECTION + where, pageable.getSort(), "t");
+        TypedQuery<TodoResponseDto> selectQuery = entityManager.createQuery(selectJpql, TodoResponseDto.class);
+        parameters.forEach(selectQuery::setParameter);
+        if (pageable.isPaged()) {
+            selectQuery.setFirstResult((int) pageable.getOffset());
+            selectQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<TodoResponseDto> content = selectQuery.getResultList();
+
+        // The count only runs when it can't be derived from the page itself (e.g. a partial last page).
+        if (total != null) {
+            return PageableExecutionUtils.getPage(content, pageable, total);
+        }
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> countQuery = entityManager.createQuery("select count(t) from Todo t" + where, Long.class);
+            parameters.forEach(countQuery::setParameter);
+            return countQuery.getSingleResult();
+        });
+    }
+
+    private static void appendPredicate(StringBuilder where, String predicate) {
+        where.append(where.isEmpty() ? " where " : " and ").append(predicate);
+    }
+}
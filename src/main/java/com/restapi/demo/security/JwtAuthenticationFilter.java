@@ -4,6 +4,13 @@ package com.restapi.demo.security;
 import com.restapi.demo.entity.User;
 import com.restapi.demo.service.JwtService;
 import com.restapi.demo.service.UserService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +21,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -29,8 +37,13 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Tagged with source (cache or token), outcome (SUCCESS/FAILURE) and the failure reason.
+    public static final String VALIDATION_TIMER = "app.jwt.validation";
+
     private final JwtService jwtService;
     private final UserService userDetailsService;
+    private final JwtPrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
 
     /**
      * The main logic of the filter. It intercepts the request, checks for a JWT,
@@ -63,37 +76,109 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 2. Extract the JWT from the "Bearer " prefix.
         jwt = authHeader.substring(7);
 
-        // 3. Extract the user's email (or username) from the JWT.
-        userEmail = jwtService.extractUsername(jwt);
+        // 3. Tokens that were already verified are served straight from the principal cache,
+        // skipping both the token parsing and the user lookup.
+        Timer.Sample validation = Timer.start(meterRegistry);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtPrincipal cachedPrincipal = principalCache.get(jwt);
+            if (cachedPrincipal != null) {
+                authenticate(cachedPrincipal, request);
+                recordValidation(validation, "cache", null);
+                filterChain.doFilter(request, response);
+                return;
+            }
+        }
+
+        // 4. Verify the token and extract its claims in a single parse.
+        final JwtClaims claims;
+        try {
+            claims = jwtService.validateAndExtract(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            recordValidation(validation, "token", failureReason(e));
+            throw e;
+        }
+        userEmail = claims.subject();
 
-        // 4. Check if we have a user email and that the user is not already authenticated.
+        // 5. Check if we have a user email and that the user is not already authenticated.
         // The second check is important to avoid re-authenticating on every filter in the chain.
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // 5. Load the user details from the database using the email from the token.
-            User userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            // 6. Validate the token against the loaded user details.
-            if (jwtService.isTokenValid(jwt,userDetails)) {
-                // 7. If the token is valid, create an authentication token.
-                // This is the object Spring Security uses to represent the current user.
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null, // Credentials are not needed as we are using a token
-                        userDetails.getAuthorities()
-                );
-
-                // 8. Set additional details about the authentication request (e.g., IP, session ID).
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-
-                // 9. Update the SecurityContextHolder with the new authentication token.
-                // This is the crucial step that marks the current user as authenticated.
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            // 6. Load the user details from the database using the email from the token.
+            User userDetails;
+            try {
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            } catch (UsernameNotFoundException e) {
+                recordValidation(validation, "token", "user_not_found");
+                throw e;
+            }
+
+            // 7. The signature and expiration were checked while parsing; make sure the token belongs to this user.
+            if (userEmail.equals(userDetails.getUsername())) {
+                // 8. Remember the verified principal until the token expires. The request is authenticated
+                // with the same detached snapshot, whether it comes from the cache or not.
+                JwtPrincipal principal = JwtPrincipal.of(userDetails);
+                principalCache.put(jwt, principal, claims.expiration());
+                authenticate(principal, request);
+                recordValidation(validation, "token", null);
+            } else {
+                recordValidation(validation, "token", "subject_mismatch");
             }
+        } else {
+            recordValidation(validation, "token", userEmail == null ? "missing_subject" : null);
         }
 
-        // 10. Pass the request and response along to the next filter in the chain.
+        // 9. Pass the request and response along to the next filter in the chain.
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Records how long validating the token took and how it ended; a null reason means it succeeded.
+     */
+    private void recordValidation(Timer.Sample validation, String source, String failureReason) {
+        validation.stop(Timer.builder(VALIDATION_TIMER)
+                .description("Duration of JWT validation in the authentication filter")
+                .tag("source", source)
+                .tag("outcome", failureReason == null ? "SUCCESS" : "FAILURE")
+                .tag("reason", failureReason == null ? "none" : failureReason)
+                .register(meterRegistry));
+    }
+
+    private static String failureReason(RuntimeException e) {
+        if (e instanceof ExpiredJwtException) {
+            return "expired";
+        }
+        if (e instanceof SignatureException) {
+            return "invalid_signature";
+        }
+        if (e instanceof MalformedJwtException) {
+            return "malformed";
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return "unsupported";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "empty";
+        }
+        return "invalid";
+    }
+
+    /**
+     * Marks the current request as authenticated for the given user.
+     */
+    private void authenticate(JwtPrincipal principal, HttpServletRequest request) {
+        // This is the object Spring Security uses to represent the current user.
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null, // Credentials are not needed as we are using a token
+                principal.authorities()
+        );
+
+        // Set additional details about the authentication request (e.g., IP, session ID).
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+
+        // Update the SecurityContextHolder with the new authentication token.
+        // This is the crucial step that marks the current user as authenticated.
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.restapi.demo.security;
+
+import java.util.Date;
+
+/**
+ * An immutable view of the claims we actually use from a verified JWT.
+ * It is produced by a single parse of the token, so callers never have to parse it again.
+ *
+ * @param subject    The username the token was issued for.
+ * @param expiration When the token expires.
+ */
+public record JwtClaims(String subject, Date expiration) {
+
+    public JwtClaims {
+        expiration = expiration != null ? new Date(expiration.getTime()) : null;
+    }
+
+    @Override
+    public Date expiration() {
+        return expiration != null ? new Date(expiration.getTime()) : null;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,31 @@
+package com.restapi.demo.security;
+
+import com.restapi.demo.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The authenticated user of a JWT request: a detached snapshot of the user fields requests need.
+ * Unlike the User entity (and its lazy todos) it can be kept in JwtPrincipalCache across requests.
+ *
+ * @param userId      The user's id.
+ * @param username    The username the token was issued for.
+ * @param authorities The user's authorities when the snapshot was taken.
+ */
+public record JwtPrincipal(Long userId, String username, List<GrantedAuthority> authorities) implements Principal {
+
+    public JwtPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+
+    public static JwtPrincipal of(User user) {
+        return new JwtPrincipal(user.getId(), user.getUsername(), List.copyOf(user.getAuthorities()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
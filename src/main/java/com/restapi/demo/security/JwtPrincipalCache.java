@@ -0,0 +1,178 @@
+package com.restapi.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of already-verified JWT principals.
+ * Entries are keyed by a SHA-256 hash of the token (the raw token is never kept in memory)
+ * and live until the token's own expiration, capped by a configurable maximum TTL.
+ * This lets JwtAuthenticationFilter skip the user lookup and token parsing for repeat requests.
+ * The token hashes are also indexed by user, so a user's entries can be evicted without a scan.
+ * Its statistics are exported as the "jwtPrincipals" cache metrics, next to the Spring caches.
+ */
+@Component
+public class JwtPrincipalCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "jwtPrincipals";
+
+    private final Cache<String, CachedPrincipal> cache;
+    private final Map<Long, Set<String>> keysByUser = new ConcurrentHashMap<>();
+    private final long maxTtlNanos;
+
+    public JwtPrincipalCache(
+            @Value("${application.security.jwt.principal-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.security.jwt.principal-cache.max-ttl:15m}") Duration maxTtl
+    ) {
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .removalListener(this::unindex)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached principal for this token, or null if the token has not been verified yet
+     * (or its entry has expired or been invalidated).
+     */
+    public JwtPrincipal get(String token) {
+        CachedPrincipal principal = cache.getIfPresent(hash(token));
+        return principal != null ? principal.principal() : null;
+    }
+
+    /**
+     * Caches a verified principal for this token until the token's expiration date.
+     */
+    public void put(String token, JwtPrincipal principal, Date expiration) {
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return; // Never cache a token that is already expired.
+        }
+        String key = hash(token);
+        // Indexed and cached under the user's lock, so a concurrent evictUser sees either both or neither.
+        keysByUser.compute(principal.userId(), (userId, keys) -> {
+            Set<String> userKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            userKeys.add(key);
+            cache.put(key, new CachedPrincipal(principal, expiration.getTime()));
+            return userKeys;
+        });
+    }
+
+    /**
+     * Drops every cached principal belonging to the given user, now and again once the current transaction
+     * (if any) has committed: a request that read the user before the commit may have cached it meanwhile.
+     * Must be called whenever the user is changed or removed so stale authorities are not served.
+     */
+    public void evictUser(Long userId) {
+        evictUserNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictUserNow(userId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same tag keys as the Spring caches' metrics: Prometheus drops meters whose tag keys differ
+        // from the ones already registered under the same name.
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME, "cache.manager", "jwtPrincipalCache", "name", CACHE_NAME);
+    }
+
+    private void evictUserNow(Long userId) {
+        keysByUser.compute(userId, (id, keys) -> {
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+            return null;
+        });
+    }
+
+    // Runs after the removal (on Caffeine's executor), so the key may have been cached again meanwhile;
+    // checked under the user's lock, like put.
+    private void unindex(String key, CachedPrincipal principal, RemovalCause cause) {
+        if (key == null || principal == null) {
+            return;
+        }
+        keysByUser.computeIfPresent(principal.principal().userId(), (userId, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256.
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedPrincipal(JwtPrincipal principal, long expiresAtMillis) {
+    }
+
+    /**
+     * Expires each entry when its token expires, but never later than the configured maximum TTL.
+     */
+    private class TokenExpiry implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+            long untilTokenExpiry = Duration.ofMillis(value.expiresAtMillis() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(untilTokenExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.restapi.demo.service;
 
+import com.restapi.demo.concurrency.PasswordHashingExecutor;
 import com.restapi.demo.dto.auth.AuthenticationRequest;
 import com.restapi.demo.dto.auth.AuthenticationResponse;
 import com.restapi.demo.dto.auth.RegisterRequest;
@@ -14,6 +15,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
@@ -21,11 +24,26 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    /**
+     * Registers a new user on the password hashing pool, so the request thread is free while BCrypt runs.
+     */
+    public CompletableFuture<AuthenticationResponse> register(RegisterRequest request) {
+        return passwordHashingExecutor.submit("register", () -> doRegister(request));
+    }
+
+    /**
+     * Authenticates an existing user on the password hashing pool, so the request thread is free while BCrypt runs.
+     */
+    public CompletableFuture<AuthenticationResponse> authenticate(AuthenticationRequest request) {
+        return passwordHashingExecutor.submit("login", () -> doAuthenticate(request));
+    }
 
     /**
      * Logic for registering a new user.
      */
-    public AuthenticationResponse register(RegisterRequest request) {
+    private AuthenticationResponse doRegister(RegisterRequest request) {
         // 1. Create a new User entity from the request DTO.
         var user = User.builder()
                 .username(request.getUsername())
@@ -46,7 +64,7 @@ public class AuthenticationService {
     /**
      * Logic for authenticating an existing user.
      */
-    public AuthenticationResponse authenticate(AuthenticationRequest request) {
+    private AuthenticationResponse doAuthenticate(AuthenticationRequest request) {
         // 1. The key step: Use the AuthenticationManager to validate the credentials.
         // This will internally use your UserDetailsService and PasswordEncoder.
         // If credentials are bad, it throws an exception.
@@ -1,13 +1,15 @@
 package com.restapi.demo.service;
 
 import com.restapi.demo.entity.User;
+import com.restapi.demo.security.JwtClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
@@ -25,6 +27,31 @@ public class JwtService {
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
 
+    // Both are immutable and thread-safe, so they are built once and shared by every request.
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Decodes the secret and builds the signing key and parser once at startup,
+     * instead of on every token operation.
+     */
+    @PostConstruct
+    void init() {
+        this.signInKey = buildSignInKey(secretKey);
+        this.jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
+
+    /**
+     * Verifies the token's signature and expiration and returns its claims, parsing the token only once.
+     * Throws a JwtException if the token is malformed, tampered with or expired.
+     */
+    public JwtClaims validateAndExtract(String token) {
+        return toJwtClaims(extractAllClaims(token));
+    }
+
     /**
      * Extracts the username (email) from a JWT token.
      */
@@ -54,13 +81,14 @@ public class JwtService {
             Map<String, Object> extraClaims,
             User userDetails
     ) {
+        long now = System.currentTimeMillis();
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -68,41 +96,28 @@ public class JwtService {
      * Validates if a JWT token is valid for a given user.
      */
     public boolean isTokenValid(String token, User userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    /**
-     * Checks if a JWT token has expired.
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extracts the expiration date from a JWT token.
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        final JwtClaims claims = validateAndExtract(token);
+        return claims.subject().equals(userDetails.getUsername()) && !claims.isExpired();
     }
 
     /**
      * Extracts all claims from a JWT token. This method also verifies the token's signature.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    private static JwtClaims toJwtClaims(Claims claims) {
+        return new JwtClaims(claims.getSubject(), claims.getExpiration());
+    }
+
     /**
      * Creates a signing key from the Base64-encoded secret key.
      */
-    private Key getSignInKey() {
+    private static Key buildSignInKey(String secretKey) {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.restapi.demo.service;
+
+import com.restapi.demo.dto.todo.TodoBatchResponseDto;
+import com.restapi.demo.dto.todo.TodoBatchUpdateDto;
+import com.restapi.demo.dto.todo.TodoRequestDto;
+
+import java.util.List;
+
+public interface TodoBatchService {
+    TodoBatchResponseDto createTodos(List<TodoRequestDto> todoRequestDtos);
+    TodoBatchResponseDto updateTodos(List<TodoBatchUpdateDto> todoBatchUpdateDtos);
+    TodoBatchResponseDto deleteTodos(List<Long> ids);
+}
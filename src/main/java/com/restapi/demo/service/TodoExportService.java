@@ -0,0 +1,13 @@
+package com.restapi.demo.service;
+
+import com.restapi.demo.dto.todo.TodoExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TodoExportService {
+    /**
+     * Streams every todo to the given output stream in the given format and returns the number of rows written.
+     */
+    long exportTodos(TodoExportFormat format, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.restapi.demo.service;
+
+import com.restapi.demo.dto.todo.TodoExportFormat;
+import com.restapi.demo.dto.todo.TodoImportResponseDto;
+
+import java.io.InputStream;
+
+public interface TodoImportService {
+    /**
+     * Imports todos from the given stream (read incrementally, never buffered as a whole) and reports the outcome.
+     */
+    TodoImportResponseDto importTodos(TodoExportFormat format, InputStream inputStream);
+}
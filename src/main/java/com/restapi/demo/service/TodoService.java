@@ -1,16 +1,25 @@
 package com.restapi.demo.service;
 
+import com.restapi.demo.dto.todo.TodoFilterDto;
 import com.restapi.demo.dto.todo.TodoRequestDto;
 import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.todo.TodoStatsResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TodoService {
-    Page<TodoResponseDto> getAllTodos(Pageable pageable);
+    Page<TodoResponseDto> getAllTodos(TodoFilterDto filter, Pageable pageable);
+    Page<TodoResponseDto> getTodosByUser(Long userId, TodoFilterDto filter, Pageable pageable);
+    Slice<TodoResponseDto> getTodosAfter(Long afterId, int size);
     TodoResponseDto getTodoById(Long id);
     TodoResponseDto createTodo(TodoRequestDto todoRequestDto);
     TodoResponseDto updateTodo(Long id, TodoRequestDto todoRequestDto);
     void deleteTodo(Long id);
+    void updateTodoIfMatch(Long id, Collection<Long> expectedVersions, TodoRequestDto todoRequestDto);
+    void deleteTodoIfMatch(Long id, Collection<Long> expectedVersions);
+    TodoStatsResponseDto getTodoStatsByUser(Long userId);
 }
\ No newline at end of file
@@ -4,13 +4,14 @@ package com.restapi.demo.service;
 import com.restapi.demo.dto.user.UserRequestDto;
 import com.restapi.demo.dto.user.UserResponseDto;
 import com.restapi.demo.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
-    List<UserResponseDto> getAllUsers();
+    Page<UserResponseDto> getAllUsers(Pageable pageable);
     UserResponseDto getUserById(Long id);
     UserResponseDto createUser(UserRequestDto userRequestDto);
     UserResponseDto updateUser(Long id, UserRequestDto userRequestDto);
@@ -0,0 +1,10 @@
+package com.restapi.demo.service;
+
+import com.restapi.demo.dto.user.UserStatsResponseDto;
+
+public interface UserStatsService {
+    /**
+     * Aggregates over all users and their todos: totals, completion ratio, active users and the users with the most todos.
+     */
+    UserStatsResponseDto getUserStats();
+}
@@ -0,0 +1,346 @@
+package com.restapi.demo.service.impl;
+
+import com.restapi.demo.cache.TodoPageCacheVersion;
+import com.restapi.demo.dto.todo.TodoBatchItemResultDto;
+import com.restapi.demo.dto.todo.TodoBatchResponseDto;
+import com.restapi.demo.dto.todo.TodoBatchUpdateDto;
+import com.restapi.demo.dto.todo.TodoChangeType;
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.events.TodoChangeFeed;
+import com.restapi.demo.exception.BadRequestException;
+import com.restapi.demo.mapper.TodoMapper;
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.TodoRepository.TodoStatsKey;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.service.TodoBatchService;
+import com.restapi.demo.stats.TodoStats;
+import com.restapi.demo.stats.TodoStatsChanges;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.restapi.demo.util.AppConstants.TODO_CACHE;
+
+/**
+ * Applies bulk todo writes in chunked transactions.
+ * Every item is validated up front (including a single bulk lookup of the referenced ids), invalid
+ * items are reported as failed, and the rest are written chunk by chunk so Hibernate can send them
+ * as JDBC batches. If a chunk fails at the database level, only that chunk is rolled back.
+ * With partitioned todos the items are grouped by partition first, as a chunk can only write to one.
+ */
+@Slf4j
+@Service
+public class TodoBatchServiceImpl implements TodoBatchService {
+
+    private static final String CHUNK_FAILED = "The chunk containing this item could not be written and was rolled back";
+
+    private final TodoRepository todoRepository;
+    private final UserRepository userRepository;
+    private final TodoMapper todoMapper;
+    private final TodoPageCacheVersion todoPageCacheVersion;
+    private final CacheManager cacheManager;
+    private final TodoChangeFeed todoChangeFeed;
+    private final TodoPartitions todoPartitions;
+    private final TodoStats todoStats;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public TodoBatchServiceImpl(
+            TodoRepository todoRepository,
+            UserRepository userRepository,
+            TodoMapper todoMapper,
+            TodoPageCacheVersion todoPageCacheVersion,
+            CacheManager cacheManager,
+            TodoChangeFeed todoChangeFeed,
+            TodoPartitions todoPartitions,
+            TodoStats todoStats,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            @Value("${application.todos.batch.max-items:1000}") int maxItems,
+            @Value("${application.todos.batch.chunk-size:200}") int chunkSize
+    ) {
+        this.todoRepository = todoRepository;
+        this.userRepository = userRepository;
+        this.todoMapper = todoMapper;
+        this.todoPageCacheVersion = todoPageCacheVersion;
+        this.cacheManager = cacheManager;
+        this.todoChangeFeed = todoChangeFeed;
+        this.todoPartitions = todoPartitions;
+        this.todoStats = todoStats;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public TodoBatchResponseDto createTodos(List<TodoRequestDto> todoRequestDtos) {
+        checkBatchSize(todoRequestDtos);
+        TodoBatchItemResultDto[] results = new TodoBatchItemResultDto[todoRequestDtos.size()];
+
+        // Resolve every referenced user in one query instead of one findById per item.
+        Set<Long> userIds = todoRequestDtos.stream()
+                .filter(Objects::nonNull)
+                .map(TodoRequestDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingUserIds = userIds.isEmpty() ? Set.of() : userRepository.findExistingIds(userIds);
+
+        List<Integer> writable = new ArrayList<>();
+        for (int i = 0; i < todoRequestDtos.size(); i++) {
+            TodoRequestDto dto = todoRequestDtos.get(i);
+            String error = validate(dto);
+            if (error == null && !existingUserIds.contains(dto.getUserId())) {
+                error = "User not found with id: " + dto.getUserId();
+            }
+            if (error != null) {
+                results[i] = failure(i, null, error);
+            } else {
+                writable.add(i);
+            }
+        }
+
+        processInChunks(writable, index -> todoPartitions.partitionOf(todoRequestDtos.get(index).getUserId()), results, chunk -> {
+            List<Todo> todos = new ArrayList<>(chunk.size());
+            for (Integer index : chunk) {
+                TodoRequestDto dto = todoRequestDtos.get(index);
+                Todo todo = new Todo();
+                todo.setTitle(dto.getTitle());
+                todo.setDescription(dto.getDescription());
+                todo.setCompleted(Boolean.TRUE.equals(dto.getCompleted()));
+                // The user was already checked above, so a reference is enough (no extra select).
+                todo.setUser(userRepository.getReferenceById(dto.getUserId()));
+                todos.add(todo);
+            }
+            todoRepository.saveAll(todos);
+            todoRepository.flush();
+            TodoStatsChanges statsChanges = new TodoStatsChanges();
+            todos.forEach(todo -> statsChanges.created(todo.getUser().getId(), todo.isCompleted()));
+            todoStats.apply(statsChanges);
+
+            List<TodoBatchItemResultDto> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Todo todo = todos.get(i);
+                chunkResults.add(success(chunk.get(i), todo.getId()));
+                // Dispatched once the chunk has committed.
+                todoChangeFeed.publish(TodoChangeType.CREATED, todo.getId(), todoRequestDtos.get(chunk.get(i)).getUserId(),
+                        todo.getVersion());
+            }
+            return chunkResults;
+        });
+
+        return new TodoBatchResponseDto(Arrays.asList(results));
+    }
+
+    @Override
+    public TodoBatchResponseDto updateTodos(List<TodoBatchUpdateDto> todoBatchUpdateDtos) {
+        checkBatchSize(todoBatchUpdateDtos);
+        TodoBatchItemResultDto[] results = new TodoBatchItemResultDto[todoBatchUpdateDtos.size()];
+
+        List<Integer> writable = new ArrayList<>();
+        for (int i = 0; i < todoBatchUpdateDtos.size(); i++) {
+            TodoBatchUpdateDto dto = todoBatchUpdateDtos.get(i);
+            String error = validate(dto);
+            if (error != null) {
+                results[i] = failure(i, dto != null ? dto.getId() : null, error);
+            } else {
+                writable.add(i);
+            }
+        }
+        Map<Long, Integer> partitions = locate(writable, index -> todoBatchUpdateDtos.get(index).getId(), results);
+
+        processInChunks(writable, index -> partitions.get(todoBatchUpdateDtos.get(index).getId()), results, chunk -> {
+            // Load the whole chunk with one select; dirty checking then emits batched UPDATEs on flush.
+            List<Long> ids = chunk.stream().map(index -> todoBatchUpdateDtos.get(index).getId()).toList();
+            Map<Long, Todo> todosById = todoRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Todo::getId, Function.identity()));
+
+            List<TodoBatchItemResultDto> chunkResults = new ArrayList<>(chunk.size());
+            TodoStatsChanges statsChanges = new TodoStatsChanges();
+            for (Integer index : chunk) {
+                TodoBatchUpdateDto dto = todoBatchUpdateDtos.get(index);
+                Todo todo = todosById.get(dto.getId());
+                if (todo == null) {
+                    chunkResults.add(failure(index, dto.getId(), "Todo not found with id: " + dto.getId()));
+                } else {
+                    boolean wasCompleted = todo.isCompleted();
+                    todoMapper.updateTodoFromBatchDto(dto, todo);
+                    statsChanges.updated(todo.getUser().getId(), wasCompleted, todo.isCompleted());
+                    chunkResults.add(success(index, dto.getId()));
+                }
+            }
+            // The version checks of the flush guarantee the completed flags read above were still current.
+            todoRepository.flush();
+            todoStats.apply(statsChanges);
+            // After the flush, so the events carry the bumped versions. The owner's id comes from
+            // the uninitialized proxy without loading the user.
+            for (Todo todo : todosById.values()) {
+                todoChangeFeed.publish(TodoChangeType.UPDATED, todo.getId(), todo.getUser().getId(), todo.getVersion());
+            }
+            return chunkResults;
+        });
+
+        return new TodoBatchResponseDto(Arrays.asList(results));
+    }
+
+    @Override
+    public TodoBatchResponseDto deleteTodos(List<Long> ids) {
+        checkBatchSize(ids);
+        TodoBatchItemResultDto[] results = new TodoBatchItemResultDto[ids.size()];
+
+        List<Integer> writable = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = failure(i, null, "Todo ID must be provided");
+            } else {
+                writable.add(i);
+            }
+        }
+        Map<Long, Integer> partitions = locate(writable, ids::get, results);
+
+        processInChunks(writable, index -> partitions.get(ids.get(index)), results, chunk -> {
+            List<Long> chunkIds = chunk.stream().map(ids::get).toList();
+            // Locks the existing todos, so their owners' stats can be adjusted by what is actually deleted.
+            List<TodoStatsKey> existing = todoRepository.findStatsKeysForUpdate(chunkIds);
+            Set<Long> existingIds = existing.stream().map(TodoStatsKey::getId).collect(Collectors.toSet());
+            // A single "DELETE ... WHERE id IN (...)" for the whole chunk.
+            todoRepository.deleteAllByIdInBatch(existingIds);
+            TodoStatsChanges statsChanges = new TodoStatsChanges();
+            existing.forEach(todo -> statsChanges.deleted(todo.getUserId(), todo.isCompleted()));
+            todoStats.apply(statsChanges);
+            // The owners aren't known here, so these events go to every subscriber.
+            existingIds.forEach(id -> todoChangeFeed.publish(TodoChangeType.DELETED, id, null, null));
+
+            List<TodoBatchItemResultDto> chunkResults = new ArrayList<>(chunk.size());
+            for (Integer index : chunk) {
+                Long id = ids.get(index);
+                chunkResults.add(existingIds.contains(id)
+                        ? success(index, id)
+                        : failure(index, id, "Todo not found with id: " + id));
+            }
+            return chunkResults;
+        });
+
+        return new TodoBatchResponseDto(Arrays.asList(results));
+    }
+
+    /**
+     * Finds the partition of every todo the items refer to, with one query. With partitioned todos,
+     * items whose todo doesn't exist are reported as failed and removed from the writable indexes.
+     */
+    private Map<Long, Integer> locate(List<Integer> writable, Function<Integer, Long> idOfItem,
+                                      TodoBatchItemResultDto[] results) {
+        Map<Long, Integer> partitions = todoPartitions.locate(writable.stream().map(idOfItem).toList());
+        writable.removeIf(index -> {
+            Long id = idOfItem.apply(index);
+            if (partitions.containsKey(id)) {
+                return false;
+            }
+            results[index] = failure(index, id, "Todo not found with id: " + id);
+            return true;
+        });
+        return partitions;
+    }
+
+    /**
+     * Runs the writer for each chunk of item indexes in its own transaction, bound to the items' partition,
+     * and records the results. Cache entries of the touched todos are evicted once each chunk has committed.
+     */
+    private void processInChunks(
+            List<Integer> indexes,
+            Function<Integer, Integer> partitionOfItem,
+            TodoBatchItemResultDto[] results,
+            Function<List<Integer>, List<TodoBatchItemResultDto>> chunkWriter
+    ) {
+        Map<Integer, List<Integer>> indexesByPartition = indexes.stream()
+                .collect(Collectors.groupingBy(partitionOfItem, TreeMap::new, Collectors.toList()));
+        indexesByPartition.forEach((partition, partitionIndexes) ->
+                processInChunks(partition, partitionIndexes, results, chunkWriter));
+        if (!indexes.isEmpty()) {
+            todoPageCacheVersion.invalidate();
+        }
+    }
+
+    private void processInChunks(
+            int partition,
+            List<Integer> indexes,
+            TodoBatchItemResultDto[] results,
+            Function<List<Integer>, List<TodoBatchItemResultDto>> chunkWriter
+    ) {
+        Cache todoCache = cacheManager.getCache(TODO_CACHE);
+        for (int start = 0; start < indexes.size(); start += chunkSize) {
+            List<Integer> chunk = indexes.subList(start, Math.min(start + chunkSize, indexes.size()));
+            try {
+                List<TodoBatchItemResultDto> chunkResults = transactionTemplate.execute(status -> {
+                    todoPartitions.bind(partition);
+                    return chunkWriter.apply(chunk);
+                });
+                for (TodoBatchItemResultDto result : chunkResults) {
+                    results[result.getIndex()] = result;
+                    if (result.isSuccess() && todoCache != null) {
+                        todoCache.evict(result.getId());
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk of {} todo(s) failed and was rolled back", chunk.size(), e);
+                for (Integer index : chunk) {
+                    results[index] = failure(index, null, CHUNK_FAILED);
+                }
+            }
+        }
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("A batch must contain at least one item");
+        }
+        if (items.size() > maxItems) {
+            throw new BadRequestException("A batch may contain at most " + maxItems + " items, got " + items.size());
+        }
+    }
+
+    /**
+     * Runs bean validation on one item and returns its errors in the same format as
+     * GlobalExceptionHandler ("field: message, ..."), or null if the item is valid.
+     */
+    private String validate(Object item) {
+        if (item == null) {
+            return "Item cannot be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static TodoBatchItemResultDto success(int index, Long id) {
+        return TodoBatchItemResultDto.builder().index(index).id(id).success(true).build();
+    }
+
+    private static TodoBatchItemResultDto failure(int index, Long id, String error) {
+        return TodoBatchItemResultDto.builder().index(index).id(id).success(false).error(error).build();
+    }
+}
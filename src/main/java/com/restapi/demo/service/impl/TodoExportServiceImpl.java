@@ -0,0 +1,160 @@
+package com.restapi.demo.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.demo.dto.todo.TodoExportFormat;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.mapper.TodoMapper;
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.service.TodoExportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TodoExportServiceImpl implements TodoExportService {
+
+    private static final String CSV_HEADER = "id,title,description,is_completed,user_id,created_at,updated_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TodoMapper todoMapper;
+
+    private final TodoPartitions todoPartitions;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    // NDJSON needs exactly one JSON document per line, so indentation is always turned off here.
+    private final ObjectWriter ndjsonWriter;
+
+    // How many rows the JDBC driver fetches per round trip, and how often the persistence context is cleared.
+    private final int fetchSize;
+
+    public TodoExportServiceImpl(
+            TodoMapper todoMapper,
+            TodoPartitions todoPartitions,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${application.todos.export.fetch-size:500}") int fetchSize
+    ) {
+        this.todoMapper = todoMapper;
+        this.todoPartitions = todoPartitions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writerFor(TodoResponseDto.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long exportTodos(TodoExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == TodoExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        // Partitioned todos are exported one partition after the other, each in id order.
+        long count = 0;
+        try {
+            for (int partition : todoPartitions.all()) {
+                count += readOnlyTransaction.execute(status -> {
+                    todoPartitions.bind(partition);
+                    try {
+                        return exportPartition(format, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private long exportPartition(TodoExportFormat format, Writer writer) throws IOException {
+        long count = 0;
+        // The rows are read through a JDBC cursor instead of being loaded into a list,
+        // so memory stays flat regardless of the table size.
+        try (Stream<Todo> todos = entityManager
+                .createQuery("select t from Todo t join fetch t.user order by t.id", Todo.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            Iterator<Todo> iterator = todos.iterator();
+            while (iterator.hasNext()) {
+                Todo todo = iterator.next();
+                TodoResponseDto dto = todoMapper.toTodoResponseDto(todo);
+                // Detach the row right away so the persistence context doesn't grow with the export.
+                entityManager.detach(todo);
+
+                if (format == TodoExportFormat.CSV) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    writer.write(ndjsonWriter.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+
+                // Periodically drop anything else the context still references (e.g. the fetched owners)
+                // and push what we have to the client.
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, TodoResponseDto dto) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writer.write(',');
+        writer.write(escapeCsv(dto.getTitle()));
+        writer.write(',');
+        writer.write(escapeCsv(dto.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.isCompleted()));
+        writer.write(',');
+        writer.write(dto.getUserId() != null ? String.valueOf(dto.getUserId()) : "");
+        writer.write(',');
+        writer.write(dto.getCreatedAt() != null ? dto.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(dto.getUpdatedAt() != null ? dto.getUpdatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes a value per RFC 4180 when it contains a separator, quote or line break.
+     */
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,450 @@
+package com.restapi.demo.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restapi.demo.cache.TodoPageCacheVersion;
+import com.restapi.demo.dto.todo.TodoChangeType;
+import com.restapi.demo.dto.todo.TodoExportFormat;
+import com.restapi.demo.dto.todo.TodoImportErrorDto;
+import com.restapi.demo.dto.todo.TodoImportResponseDto;
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.events.TodoChangeFeed;
+import com.restapi.demo.exception.ServiceUnavailableException;
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.service.TodoImportService;
+import com.restapi.demo.stats.TodoStats;
+import com.restapi.demo.stats.TodoStatsChanges;
+import com.restapi.demo.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Imports todos as a two-stage pipeline:
+ * a producer thread parses the upload into rows and hands them over through a bounded queue,
+ * and the request thread writes them in fixed-size batched transactions.
+ * When the writer falls behind, the full queue blocks the parser, which in turn stops reading
+ * the upload, so memory use is bounded by the queue capacity rather than by the upload size.
+ */
+@Slf4j
+@Service
+public class TodoImportServiceImpl implements TodoImportService {
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final int PROGRESS_LOG_INTERVAL_BATCHES = 10;
+
+    private final TodoRepository todoRepository;
+    private final UserRepository userRepository;
+    private final TodoPageCacheVersion todoPageCacheVersion;
+    private final TodoChangeFeed todoChangeFeed;
+    private final TodoPartitions todoPartitions;
+    private final TodoStats todoStats;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor todoImportExecutor;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxReportedErrors;
+
+    public TodoImportServiceImpl(
+            TodoRepository todoRepository,
+            UserRepository userRepository,
+            TodoPageCacheVersion todoPageCacheVersion,
+            TodoChangeFeed todoChangeFeed,
+            TodoPartitions todoPartitions,
+            TodoStats todoStats,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Qualifier("todoImportExecutor") TaskExecutor todoImportExecutor,
+            @Value("${application.todos.import.batch-size:500}") int batchSize,
+            @Value("${application.todos.import.queue-capacity:2000}") int queueCapacity,
+            @Value("${application.todos.import.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.todoRepository = todoRepository;
+        this.userRepository = userRepository;
+        this.todoPageCacheVersion = todoPageCacheVersion;
+        this.todoChangeFeed = todoChangeFeed;
+        this.todoPartitions = todoPartitions;
+        this.todoStats = todoStats;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.todoImportExecutor = todoImportExecutor;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public TodoImportResponseDto importTodos(TodoExportFormat format, InputStream inputStream) {
+        long startedAt = System.nanoTime();
+        BlockingQueue<ImportRow> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ImportReport report = new ImportReport();
+
+        try {
+            todoImportExecutor.execute(() -> produce(format, inputStream, queue, cancelled));
+        } catch (TaskRejectedException e) {
+            throw new ServiceUnavailableException("Too many imports are running, please retry later", 30);
+        }
+
+        try {
+            consume(queue, report, startedAt);
+        } finally {
+            // Releases the producer if the writer stopped early.
+            cancelled.set(true);
+        }
+
+        if (report.imported > 0) {
+            todoPageCacheVersion.invalidate();
+            // One event for the whole import instead of one per row, which would swamp every subscriber.
+            todoChangeFeed.publish(TodoChangeType.IMPORTED, null, null, null);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        TodoImportResponseDto response = TodoImportResponseDto.builder()
+                .totalRows(report.imported + report.failed)
+                .imported(report.imported)
+                .failed(report.failed)
+                .batchSize(batchSize)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(rowsPerSecond(report.imported, elapsedNanos))
+                .aborted(report.aborted)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .build();
+        log.info("Todo import finished: {} imported, {} failed in {} ms ({} rows/s, batch size {})",
+                response.getImported(), response.getFailed(), response.getElapsedMs(),
+                String.format(Locale.ROOT, "%.1f", response.getRowsPerSecond()), batchSize);
+        return response;
+    }
+
+    // --- Producer side: parsing ---
+
+    private void produce(TodoExportFormat format, InputStream inputStream, BlockingQueue<ImportRow> queue, AtomicBoolean cancelled) {
+        String failure = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (format == TodoExportFormat.CSV) {
+                produceCsv(reader, queue, cancelled);
+            } else {
+                produceNdjson(reader, queue, cancelled);
+            }
+        } catch (IOException e) {
+            failure = "Could not read the upload: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "The import was interrupted";
+        } catch (RuntimeException e) {
+            log.error("Todo import producer failed", e);
+            failure = "The upload could not be parsed";
+        }
+
+        try {
+            put(queue, ImportRow.end(failure), cancelled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void produceNdjson(BufferedReader reader, BlockingQueue<ImportRow> queue, AtomicBoolean cancelled)
+            throws IOException, InterruptedException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null && !cancelled.get()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportRow row;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                TodoRequestDto dto = new TodoRequestDto();
+                dto.setTitle(text(node, "title"));
+                dto.setDescription(text(node, "description"));
+                dto.setCompleted(bool(node, "completed", "is_completed"));
+                dto.setUserId(number(node, "userId", "user_id"));
+                row = ImportRow.of(lineNumber, dto);
+            } catch (JsonProcessingException e) {
+                row = ImportRow.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                row = ImportRow.failed(lineNumber, e.getMessage());
+            }
+            put(queue, row, cancelled);
+        }
+    }
+
+    private void produceCsv(BufferedReader reader, BlockingQueue<ImportRow> queue, AtomicBoolean cancelled)
+            throws IOException, InterruptedException {
+        CsvReader csvReader = new CsvReader(reader);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        // Columns are matched by name, so the output of GET /todos/export?format=csv can be imported as is.
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        Integer title = columns.get("title");
+        Integer description = columns.get("description");
+        Integer completed = columns.containsKey("completed") ? columns.get("completed") : columns.get("is_completed");
+        Integer userId = columns.containsKey("user_id") ? columns.get("user_id") : columns.get("userid");
+        if (title == null || userId == null) {
+            throw new IOException("The CSV header must contain at least 'title' and 'user_id' columns");
+        }
+
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null && !cancelled.get()) {
+            long lineNumber = csvReader.getRecordLineNumber();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            ImportRow row;
+            try {
+                TodoRequestDto dto = new TodoRequestDto();
+                dto.setTitle(field(record, title));
+                dto.setDescription(field(record, description));
+                String completedValue = field(record, completed);
+                dto.setCompleted(completedValue != null ? Boolean.parseBoolean(completedValue.trim()) : null);
+                String userIdValue = field(record, userId);
+                dto.setUserId(userIdValue != null ? Long.parseLong(userIdValue.trim()) : null);
+                row = ImportRow.of(lineNumber, dto);
+            } catch (NumberFormatException e) {
+                row = ImportRow.failed(lineNumber, "user_id: must be a number");
+            }
+            put(queue, row, cancelled);
+        }
+    }
+
+    /**
+     * Blocks while the queue is full (this is the backpressure), but gives up once the writer is gone.
+     */
+    private static void put(BlockingQueue<ImportRow> queue, ImportRow row, AtomicBoolean cancelled) throws InterruptedException {
+        while (!queue.offer(row, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (cancelled.get()) {
+                return;
+            }
+        }
+    }
+
+    // --- Consumer side: batched writes ---
+
+    private void consume(BlockingQueue<ImportRow> queue, ImportReport report, long startedAt) {
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        int batches = 0;
+        try {
+            while (true) {
+                ImportRow row = queue.take();
+                if (row.end()) {
+                    report.aborted = row.error();
+                    break;
+                }
+                if (row.error() != null) {
+                    report.fail(row.line(), row.error());
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                    if (++batches % PROGRESS_LOG_INTERVAL_BATCHES == 0) {
+                        long elapsedNanos = System.nanoTime() - startedAt;
+                        log.info("Todo import progress: {} imported, {} failed ({} rows/s)", report.imported, report.failed,
+                                String.format(Locale.ROOT, "%.1f", rowsPerSecond(report.imported, elapsedNanos)));
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, report);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.aborted = "The import was interrupted";
+        }
+    }
+
+    private void writeBatch(List<ImportRow> batch, ImportReport report) {
+        // Validate, then check every not-yet-seen user id of the batch with a single query.
+        List<ImportRow> valid = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            String error = validate(row.dto());
+            if (error != null) {
+                report.fail(row.line(), error);
+            } else {
+                valid.add(row);
+            }
+        }
+        report.resolveUsers(valid.stream().map(row -> row.dto().getUserId()).collect(Collectors.toSet()));
+
+        List<ImportRow> writable = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (report.knownUserIds.contains(row.dto().getUserId())) {
+                writable.add(row);
+            } else {
+                report.fail(row.line(), "User not found with id: " + row.dto().getUserId());
+            }
+        }
+        // With partitioned todos a transaction can only write to one partition, so each gets its own.
+        writable.stream()
+                .collect(Collectors.groupingBy(row -> todoPartitions.partitionOf(row.dto().getUserId()),
+                        TreeMap::new, Collectors.toList()))
+                .forEach((partition, rows) -> writeRows(partition, rows, report));
+    }
+
+    private void writeRows(int partition, List<ImportRow> writable, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                todoPartitions.bind(partition);
+                List<Todo> todos = new ArrayList<>(writable.size());
+                TodoStatsChanges statsChanges = new TodoStatsChanges();
+                for (ImportRow row : writable) {
+                    Todo todo = new Todo();
+                    todo.setTitle(row.dto().getTitle());
+                    todo.setDescription(row.dto().getDescription());
+                    todo.setCompleted(Boolean.TRUE.equals(row.dto().getCompleted()));
+                    todo.setUser(userRepository.getReferenceById(row.dto().getUserId()));
+                    todos.add(todo);
+                    statsChanges.created(row.dto().getUserId(), todo.isCompleted());
+                }
+                todoRepository.saveAll(todos);
+                todoRepository.flush();
+                todoStats.apply(statsChanges);
+            });
+            report.imported += writable.size();
+        } catch (RuntimeException e) {
+            log.warn("Todo import batch of {} row(s) failed and was rolled back", writable.size(), e);
+            for (ImportRow row : writable) {
+                report.fail(row.line(), "The batch containing this row could not be written and was rolled back");
+            }
+        }
+    }
+
+    private String validate(TodoRequestDto dto) {
+        Set<ConstraintViolation<TodoRequestDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1_000_000_000d / elapsedNanos : 0;
+    }
+
+    private static String field(List<String> record, Integer index) {
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    private static Boolean bool(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                return value.asBoolean();
+            }
+        }
+        return null;
+    }
+
+    private static Long number(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                if (!value.canConvertToLong()) {
+                    throw new IllegalArgumentException(name + " must be a number");
+                }
+                return value.asLong();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One parsed line handed from the producer to the writer, or the end-of-input marker.
+     */
+    private record ImportRow(long line, TodoRequestDto dto, String error, boolean end) {
+
+        static ImportRow of(long line, TodoRequestDto dto) {
+            return new ImportRow(line, dto, null, false);
+        }
+
+        static ImportRow failed(long line, String error) {
+            return new ImportRow(line, null, error, false);
+        }
+
+        static ImportRow end(String failure) {
+            return new ImportRow(0, null, failure, true);
+        }
+    }
+
+    /**
+     * Mutable state of one import; only ever touched by the writer (request) thread.
+     */
+    private class ImportReport {
+        private final List<TodoImportErrorDto> errors = new ArrayList<>();
+        // User ids already looked up during this import, so each id hits the database at most once.
+        private final Set<Long> knownUserIds = new HashSet<>();
+        private final Set<Long> unknownUserIds = new HashSet<>();
+        private long imported;
+        private long failed;
+        private String aborted;
+
+        void fail(long line, String error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new TodoImportErrorDto(line, error));
+            }
+        }
+
+        void resolveUsers(Set<Long> userIds) {
+            Set<Long> unresolved = new HashSet<>(userIds);
+            unresolved.removeAll(knownUserIds);
+            unresolved.removeAll(unknownUserIds);
+            if (unresolved.isEmpty()) {
+                return;
+            }
+            Set<Long> existing = userRepository.findExistingIds(unresolved);
+            knownUserIds.addAll(existing);
+            unresolved.removeAll(existing);
+            unknownUserIds.addAll(unresolved);
+        }
+    }
+}
@@ -1,26 +1,49 @@
 package com.restapi.demo.service.impl;
 
+import com.restapi.demo.cache.TodoPageCacheVersion;
+import com.restapi.demo.dto.todo.TodoChangeType;
+import com.restapi.demo.dto.todo.TodoFilterDto;
 import com.restapi.demo.dto.todo.TodoRequestDto;
 import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.todo.TodoStatsResponseDto;
 import com.restapi.demo.entity.Todo;
 import com.restapi.demo.entity.User;
+import com.restapi.demo.events.TodoChangeFeed;
+import com.restapi.demo.exception.PreconditionFailedException;
 import com.restapi.demo.exception.ResourceNotFoundException;
 import com.restapi.demo.mapper.TodoMapper;
+import com.restapi.demo.partition.PartitionedTodoReader;
+import com.restapi.demo.partition.TodoPartitions;
 import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.TodoRepository.TodoStatsKey;
 import com.restapi.demo.repository.UserRepository;
 import com.restapi.demo.service.TodoService;
+import com.restapi.demo.stats.TodoCounts;
+import com.restapi.demo.stats.TodoStats;
+import com.restapi.demo.stats.TodoStatsChanges;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.restapi.demo.util.AppConstants.TODO_CACHE;
+import static com.restapi.demo.util.AppConstants.TODO_PAGE_CACHE;
+
 @Service
 @RequiredArgsConstructor
 public class TodoServiceImpl implements TodoService {
@@ -34,26 +57,56 @@ public class TodoServiceImpl implements TodoService {
     @Autowired
     private final TodoMapper todoMapper;
 
+    private final TodoPageCacheVersion todoPageCacheVersion; // Invalidates cached pages on writes
+
+    private final TodoChangeFeed todoChangeFeed; // Pushes every write to GET /todos/changes after commit
+
+    private final TodoPartitions todoPartitions; // Binds each write transaction to the partition it touches
+
+    private final PartitionedTodoReader partitionedTodoReader; // Reads across partitions
+
+    private final TodoStats todoStats; // Per-user todo counts, changed in the transaction of every write
+
+    @Override
+    // No transaction here: with partitioned todos every partition is read in its own one.
+    @Cacheable(value = TODO_PAGE_CACHE, key = "@todoPageCacheVersion.keyFor(null, #filter, #pageable)", sync = true)
+    public Page<TodoResponseDto> getAllTodos(TodoFilterDto filter, Pageable pageable) {
+        return partitionedTodoReader.findAllProjected(filter, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "todos", key = "#pageable")
-    public Page<TodoResponseDto> getAllTodos(Pageable pageable) {
-        Page<Todo> todoPage = todoRepository.findAll(pageable);
-        return todoPage.map(todoMapper::toTodoResponseDto);
+    @Cacheable(value = TODO_PAGE_CACHE, key = "@todoPageCacheVersion.keyFor(#userId, #filter, #pageable)", sync = true)
+    public Page<TodoResponseDto> getTodosByUser(Long userId, TodoFilterDto filter, Pageable pageable) {
+        // An unknown user is a 404 rather than an empty page.
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return partitionedTodoReader.findAllProjected(filter.toBuilder().userId(userId).build(), pageable);
+    }
+
+    @Override
+    // No transaction here: with partitioned todos every partition is read in its own one.
+    public Slice<TodoResponseDto> getTodosAfter(Long afterId, int size) {
+        // Fetch one extra row to know whether there is a next page without running a count query.
+        List<TodoResponseDto> todos = partitionedTodoReader.findProjectedAfter(
+                afterId != null ? afterId : 0L, Limit.of(size + 1));
+        boolean hasNext = todos.size() > size;
+        List<TodoResponseDto> content = hasNext ? todos.subList(0, size) : todos;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "todos", key = "#id")
+    @Cacheable(value = TODO_CACHE, key = "#id", sync = true)
     public TodoResponseDto getTodoById(Long id) {
-        Todo todo = todoRepository.findById(id)
+        return partitionedTodoReader.findProjectedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id: " + id));
-        return todoMapper.toTodoResponseDto(todo);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "todos", allEntries = true)
+    @CachePut(value = TODO_CACHE, key = "#result.id")
     public TodoResponseDto createTodo(TodoRequestDto todoRequestDto) {
         // Find the user who this todo will belong to
         User user = userRepository.findById(todoRequestDto.getUserId())
@@ -65,33 +118,118 @@ public class TodoServiceImpl implements TodoService {
         todo.setDescription(todoRequestDto.getDescription());
         todo.setUser(user); // Link the todo to the user
 
-        // Save the new todo and map it to a response DTO
+        // Save the new todo in its owner's partition and map it to a response DTO
+        todoPartitions.bindToUser(user.getId());
         Todo savedTodo = todoRepository.save(todo);
-        return todoMapper.toTodoResponseDto(savedTodo);
+        todoStats.apply(new TodoStatsChanges().created(user.getId(), savedTodo.isCompleted()));
+        todoPageCacheVersion.invalidate();
+        TodoResponseDto createdTodo = todoMapper.toTodoResponseDto(savedTodo);
+        todoChangeFeed.publish(TodoChangeType.CREATED, createdTodo);
+        return createdTodo;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "todos", key = "#id", allEntries = true)
+    @CachePut(value = TODO_CACHE, key = "#id")
     public TodoResponseDto updateTodo(Long id, TodoRequestDto todoRequestDto) {
-        Todo existingTodo = todoRepository.findById(id)
+        todoPartitions.bindToTodo(id);
+        Todo existingTodo = todoRepository.findWithUserById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id: " + id));
 
+        boolean wasCompleted = existingTodo.isCompleted();
+
         // Use the mapper to update the entity from the DTO
         // This automatically handles null checks for partial updates
         todoMapper.updateTodoFromDto(todoRequestDto, existingTodo);
 
-        Todo updatedTodo = todoRepository.save(existingTodo);
-        return todoMapper.toTodoResponseDto(updatedTodo);
+        // Flush so @PreUpdate sets updatedAt before the DTO is mapped and written to the cache.
+        // The version check of the flush also guarantees that wasCompleted was still current.
+        Todo updatedTodo = todoRepository.saveAndFlush(existingTodo);
+        todoStats.apply(new TodoStatsChanges().updated(existingTodo.getUser().getId(), wasCompleted, updatedTodo.isCompleted()));
+        todoPageCacheVersion.invalidate();
+        TodoResponseDto updatedTodoDto = todoMapper.toTodoResponseDto(updatedTodo);
+        todoChangeFeed.publish(TodoChangeType.UPDATED, updatedTodoDto);
+        return updatedTodoDto;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "todos", key = "#id", allEntries = true)
+    @CacheEvict(value = TODO_CACHE, key = "#id")
     public void deleteTodo(Long id) {
+        todoPartitions.bindToTodo(id);
+        TodoStatsKey todo = findStatsKeyForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id: " + id));
+        todoRepository.deleteById(id);
+        todoStats.apply(new TodoStatsChanges().deleted(todo.getUserId(), todo.isCompleted()));
+        todoPageCacheVersion.invalidate();
+        todoChangeFeed.publish(TodoChangeType.DELETED, id, todo.getUserId(), null);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = TODO_CACHE, key = "#id")
+    public void updateTodoIfMatch(Long id, Collection<Long> expectedVersions, TodoRequestDto todoRequestDto) {
+        todoPartitions.bindToTodo(id);
+        // Only a change of completed affects the todo stats. The stats statement reads it from the row itself,
+        // so the update still runs without a select before it; a miss below rolls both back.
+        if (todoRequestDto.getCompleted() != null && !expectedVersions.isEmpty()) {
+            todoStats.applyCompletedIfVersionIn(id, expectedVersions, todoRequestDto.getCompleted());
+        }
+        int updated = expectedVersions.isEmpty() ? 0 : todoRepository.updateIfVersionIn(id, expectedVersions,
+                todoRequestDto.getTitle(), todoRequestDto.getDescription(), todoRequestDto.getCompleted(),
+                LocalDateTime.now());
+        if (updated == 0) {
+            throw notFoundOrModified(id);
+        }
+        todoPageCacheVersion.invalidate();
+        // The single statement doesn't tell us the owner, nor the new version if several were allowed.
+        Long version = expectedVersions.size() == 1 ? expectedVersions.iterator().next() + 1 : null;
+        todoChangeFeed.publish(TodoChangeType.UPDATED, id, null, version);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = TODO_CACHE, key = "#id")
+    public void deleteTodoIfMatch(Long id, Collection<Long> expectedVersions) {
+        todoPartitions.bindToTodo(id);
+        // As for updates, the stats statement reads the row it changes the counts for; a miss rolls it back.
+        if (!expectedVersions.isEmpty()) {
+            todoStats.applyDeleteIfVersionIn(id, expectedVersions);
+        }
+        int deleted = expectedVersions.isEmpty() ? 0 : todoRepository.deleteIfVersionIn(id, expectedVersions);
+        if (deleted == 0) {
+            throw notFoundOrModified(id);
+        }
+        todoPageCacheVersion.invalidate();
+        todoChangeFeed.publish(TodoChangeType.DELETED, id, null, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoStatsResponseDto getTodoStatsByUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        TodoCounts counts = todoStats.forUser(userId);
+        return TodoStatsResponseDto.builder()
+                .userId(userId)
+                .total(counts.total())
+                .completed(counts.completed())
+                .open(counts.open())
+                .build();
+    }
+
+    // The owner and completed flag of a todo, whose row stays locked until the write has committed.
+    private Optional<TodoStatsKey> findStatsKeyForUpdate(Long id) {
+        return todoRepository.findStatsKeysForUpdate(List.of(id)).stream().findFirst();
+    }
+
+    // A conditional write that touched no row either hit a missing todo or a stale version.
+    // Only this failure path pays for the extra lookup.
+    private RuntimeException notFoundOrModified(Long id) {
         if (!todoRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Todo not found with id: " + id);
+            return new ResourceNotFoundException("Todo not found with id: " + id);
         }
-        todoRepository.deleteById(id);
+        return new PreconditionFailedException("Todo " + id + " has been modified since it was read (If-Match does not match)");
     }
-}
\ No newline at end of file
+}
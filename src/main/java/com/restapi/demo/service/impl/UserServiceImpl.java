@@ -1,36 +1,55 @@
 package com.restapi.demo.service.impl;
 
+import com.restapi.demo.cache.TodoPageCacheVersion;
 import com.restapi.demo.dto.user.UserRequestDto;
 import com.restapi.demo.dto.user.UserResponseDto;
 import com.restapi.demo.entity.User;
+import com.restapi.demo.exception.BadRequestException;
 import com.restapi.demo.exception.ResourceNotFoundException;
 import com.restapi.demo.mapper.UserMapper;
+import com.restapi.demo.partition.TodoPartitions;
 import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.JwtPrincipalCache;
 import com.restapi.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 // import org.springframework.security.crypto.password.PasswordEncoder; // Uncomment for real security
 
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+
+import static com.restapi.demo.util.AppConstants.TODO_CACHE;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // What users can be listed by; anything else (say, the password hash) is refused.
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "username", "email");
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final JwtPrincipalCache principalCache; // Cached JWT principals must not outlive user changes
+    private final TodoPageCacheVersion todoPageCacheVersion;
+    private final TodoPartitions todoPartitions;
     // private final PasswordEncoder passwordEncoder; // Inject this in a real app
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toUserResponseDto)
-                .collect(Collectors.toList());
+    public Page<UserResponseDto> getAllUsers(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestException("Users can't be sorted by '" + order.getProperty()
+                        + "', use one of " + SORT_PROPERTIES);
+            }
+        }
+        return userRepository.findAll(pageable).map(userMapper::toUserResponseDto);
     }
 
     @Override
@@ -73,16 +92,23 @@ public class UserServiceImpl implements UserService {
         userMapper.updateUserFromDto(userRequestDto, existingUser);
 
         User updatedUser = userRepository.save(existingUser);
+        principalCache.evictUser(id);
         return userMapper.toUserResponseDto(updatedUser);
     }
 
     @Override
     @Transactional
+    // Deleting a user cascades to their todos, whose ids we don't know here.
+    @CacheEvict(value = TODO_CACHE, allEntries = true)
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
+        // The cascade loads and deletes the user's todos, all in the user's partition.
+        todoPartitions.bindToUser(id);
         userRepository.deleteById(id);
+        principalCache.evictUser(id);
+        todoPageCacheVersion.invalidate();
     }
 
     @Override
@@ -0,0 +1,159 @@
+package com.restapi.demo.service.impl;
+
+import com.restapi.demo.dto.user.UserStatsResponseDto;
+import com.restapi.demo.dto.user.UserTodoCountDto;
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.TodoRepository.TodoTotals;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.service.UserStatsService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Computes the admin statistics without a single query over all users and todos. The user id range is split
+ * into application.users.stats.ranges ranges, and every range is aggregated by its own queries (once per todo
+ * partition), in parallel on userStatsQueryExecutor, each in a read-only transaction. The totals of the ranges
+ * are then added up, and their top users merged.
+ * This method must therefore not be called inside a transaction: it would hold a connection while it waits.
+ */
+@Service
+public class UserStatsServiceImpl implements UserStatsService {
+
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final TodoPartitions todoPartitions;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AsyncTaskExecutor queryExecutor;
+    private final int ranges;
+    private final Duration activeWindow;
+    private final int topUsers;
+
+    public UserStatsServiceImpl(
+            UserRepository userRepository,
+            TodoRepository todoRepository,
+            TodoPartitions todoPartitions,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("userStatsQueryExecutor") AsyncTaskExecutor queryExecutor,
+            @Value("${application.users.stats.ranges:4}") int ranges,
+            @Value("${application.users.stats.active-window:30d}") Duration activeWindow,
+            @Value("${application.users.stats.top-users:10}") int topUsers
+    ) {
+        this.userRepository = userRepository;
+        this.todoRepository = todoRepository;
+        this.todoPartitions = todoPartitions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryExecutor = queryExecutor;
+        this.ranges = Math.max(1, ranges);
+        this.activeWindow = activeWindow;
+        this.topUsers = topUsers;
+    }
+
+    @Override
+    public UserStatsResponseDto getUserStats() {
+        long start = System.nanoTime();
+        LocalDateTime activeSince = LocalDateTime.now().minus(activeWindow);
+        List<long[]> idRanges = readOnly(null, this::splitUserIds);
+
+        List<CompletableFuture<Long>> userCounts = idRanges.stream()
+                .map(range -> submit(null, () -> userRepository.countByIdBetween(range[0], range[1])))
+                .toList();
+        // A user's todos are all in one partition, so the totals of the partitions simply add up too.
+        List<CompletableFuture<TodoTotals>> totals = new ArrayList<>();
+        List<CompletableFuture<List<UserTodoCountDto>>> owners = new ArrayList<>();
+        for (int partition : todoPartitions.all()) {
+            for (long[] range : idRanges) {
+                totals.add(submit(partition, () -> todoRepository.countTotalsByUserIdBetween(range[0], range[1], activeSince)));
+                owners.add(submit(partition, () -> todoRepository.findTopOwnersByUserIdBetween(range[0], range[1], Limit.of(topUsers))));
+            }
+        }
+
+        List<CompletableFuture<?>> queries = new ArrayList<>(userCounts);
+        queries.addAll(totals);
+        queries.addAll(owners);
+        awaitAll(queries);
+        List<TodoTotals> rangeTotals = totals.stream().map(CompletableFuture::join).toList();
+
+        long totalUsers = userCounts.stream().mapToLong(CompletableFuture::join).sum();
+        long totalTodos = rangeTotals.stream().mapToLong(TodoTotals::getTodos).sum();
+        long completedTodos = rangeTotals.stream()
+                .mapToLong(range -> range.getCompleted() == null ? 0 : range.getCompleted())
+                .sum();
+        // The top users overall are among the top users of the ranges.
+        List<UserTodoCountDto> topOwners = owners.stream()
+                .flatMap(future -> future.join().stream())
+                .sorted(Comparator.comparingLong(UserTodoCountDto::getTodos).reversed()
+                        .thenComparing(UserTodoCountDto::getUserId))
+                .limit(topUsers)
+                .toList();
+
+        return UserStatsResponseDto.builder()
+                .totalUsers(totalUsers)
+                .activeUsers(rangeTotals.stream().mapToLong(TodoTotals::getActiveUsers).sum())
+                .activeSince(activeSince)
+                .totalTodos(totalTodos)
+                .completedTodos(completedTodos)
+                .completionRatio(totalTodos == 0 ? 0 : (double) completedTodos / totalTodos)
+                .averageTodosPerUser(totalUsers == 0 ? 0 : (double) totalTodos / totalUsers)
+                .topUsers(topOwners)
+                .elapsedMs(Duration.ofNanos(System.nanoTime() - start).toMillis())
+                .build();
+    }
+
+    // Splits [min id, max id] into equally wide ranges; none at all without users.
+    private List<long[]> splitUserIds() {
+        Long minId = userRepository.findMinId();
+        Long maxId = userRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+        long width = Math.max(1, (maxId - minId) / ranges + 1);
+        List<long[]> idRanges = new ArrayList<>(ranges);
+        for (long from = minId; from <= maxId; from += width) {
+            idRanges.add(new long[]{from, Math.min(maxId, from + width - 1)});
+        }
+        return idRanges;
+    }
+
+    // Runs the query in a read-only transaction on the executor, bound to the given todo partition (if any).
+    private <T> CompletableFuture<T> submit(Integer partition, Supplier<T> query) {
+        return queryExecutor.submitCompletable(() -> readOnly(partition, query));
+    }
+
+    private <T> T readOnly(Integer partition, Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> {
+            if (partition != null) {
+                todoPartitions.bind(partition);
+            }
+            return query.get();
+        });
+    }
+
+    // Waits for all the queries; if one fails, the others are cancelled and its exception is thrown.
+    private static void awaitAll(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
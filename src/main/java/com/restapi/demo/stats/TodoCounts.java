@@ -0,0 +1,13 @@
+package com.restapi.demo.stats;
+
+/**
+ * The number of todos of a user (or of all users), and how many of them are completed.
+ */
+public record TodoCounts(long total, long completed) {
+
+    public static final TodoCounts NONE = new TodoCounts(0, 0);
+
+    public long open() {
+        return total - completed;
+    }
+}
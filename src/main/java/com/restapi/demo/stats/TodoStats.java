@@ -0,0 +1,130 @@
+package com.restapi.demo.stats;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-user todo counts of the todo_stats table.
+ * Every todo write applies its changes to them in its own transaction, so they commit or roll back together
+ * with the todos: no count query is ever needed to read them. The table isn't partitioned; a user's row is
+ * only locked by the writes of that user's todos, from the update until the commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class TodoStats {
+
+    // Adds the changes d to the user's row, creating it on their first todo.
+    private static final String ADD_CHANGES = "ON s.user_id = d.user_id "
+            + "WHEN MATCHED THEN UPDATE SET total = s.total + d.total, completed = s.completed + d.completed "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, total, completed) VALUES (d.user_id, d.total, d.completed)";
+
+    private static final String ADD_SQL = "MERGE INTO todo_stats s "
+            + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS d (user_id, total, completed) "
+            + ADD_CHANGES;
+
+    // The changes of conditional writes, read from the todo row by the same statement. They run through
+    // Hibernate, whose statement inspector points "todos" at the transaction's partition.
+    private static final String DELETE_IF_VERSION_IN_SQL = "MERGE INTO todo_stats s "
+            + "USING (SELECT user_id, CAST(-1 AS BIGINT) AS total, CAST(CASE WHEN completed THEN -1 ELSE 0 END AS BIGINT) AS completed "
+            + "FROM todos WHERE id = :id AND version IN (:versions)) AS d "
+            + ADD_CHANGES;
+
+    private static final String COMPLETE_IF_VERSION_IN_SQL = "MERGE INTO todo_stats s "
+            + "USING (SELECT user_id, CAST(0 AS BIGINT) AS total, CAST(:change AS BIGINT) AS completed "
+            + "FROM todos WHERE id = :id AND version IN (:versions) AND completed <> :completed) AS d "
+            + ADD_CHANGES;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Applies the changes of a todo write. Must be called in the transaction of that write.
+     */
+    public void apply(TodoStatsChanges changes) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Todo stats must be changed in the transaction of the todo write");
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = changes.byUser().entrySet().stream()
+                .filter(entry -> entry.getValue()[0] != 0 || entry.getValue()[1] != 0)
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()[0], entry.getValue()[1]})
+                .toList();
+        jdbcTemplate.batchUpdate(ADD_SQL, rows);
+    }
+
+    /**
+     * Applies the changes of deleting the todo if it is at one of the versions, read from its row by this
+     * statement, so the conditional delete doesn't need a select before it. Run it just before that delete,
+     * in its transaction: when the delete then misses, the transaction must roll back, and with it this change.
+     * When it hits, the row still had one of the versions, so it is the row this statement read.
+     * Unlike the other writes, this locks the owner's stats row before the todo row. Two writes that take them
+     * in opposite order can only deadlock on the same todo, where one of them fails on its version anyway.
+     */
+    public void applyDeleteIfVersionIn(Long id, Collection<Long> versions) {
+        applyFromTodo(entityManager.createNativeQuery(DELETE_IF_VERSION_IN_SQL)
+                .setParameter("id", id)
+                .setParameter("versions", versions));
+    }
+
+    /**
+     * Like {@link #applyDeleteIfVersionIn}, for a conditional update that sets completed:
+     * the counts only change if the row had the other value.
+     */
+    public void applyCompletedIfVersionIn(Long id, Collection<Long> versions, boolean completed) {
+        applyFromTodo(entityManager.createNativeQuery(COMPLETE_IF_VERSION_IN_SQL)
+                .setParameter("id", id)
+                .setParameter("versions", versions)
+                .setParameter("completed", completed)
+                .setParameter("change", completed ? 1 : -1));
+    }
+
+    public TodoCounts forUser(Long userId) {
+        List<TodoCounts> counts = jdbcTemplate.query("SELECT total, completed FROM todo_stats WHERE user_id = ?",
+                (rs, rowNum) -> new TodoCounts(rs.getLong("total"), rs.getLong("completed")), userId);
+        return counts.isEmpty() ? TodoCounts.NONE : counts.get(0);
+    }
+
+    // Sums one row per user: O(users), still far less than counting every todo. A single global row would
+    // make this O(1), but every todo write would then lock that one row, serializing the writers of all users.
+    // Where the sum is too slow for unfiltered listings, leave application.todos.stats.page-totals off.
+    public TodoCounts overall() {
+        Map<String, Object> sums = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(SUM(total), 0) AS total, COALESCE(SUM(completed), 0) AS completed FROM todo_stats");
+        return new TodoCounts(((Number) sums.get("total")).longValue(), ((Number) sums.get("completed")).longValue());
+    }
+
+    private void applyFromTodo(Query statement) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Todo stats must be changed in the transaction of the todo write");
+        }
+        statement.executeUpdate();
+    }
+
+    /**
+     * The number of todos matching the filter, from the counts, or null if they can't tell (a createdAfter filter).
+     */
+    public Long count(TodoFilterDto filter) {
+        if (filter.getCreatedAfter() != null) {
+            return null;
+        }
+        TodoCounts counts = filter.getUserId() != null ? forUser(filter.getUserId()) : overall();
+        if (filter.getCompleted() == null) {
+            return counts.total();
+        }
+        return filter.getCompleted() ? counts.completed() : counts.open();
+    }
+}
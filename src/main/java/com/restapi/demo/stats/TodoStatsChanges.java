@@ -0,0 +1,44 @@
+package com.restapi.demo.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What a todo write changes in the todo counts of the owners it touches, added up per user.
+ * Collect the changes of a write here, then apply them with {@link TodoStats#apply} in the same transaction.
+ */
+public class TodoStatsChanges {
+
+    // userId -> {total, completed}. Sorted, so the rows of several users are always updated (and locked) in the same order.
+    private final Map<Long, long[]> byUser = new TreeMap<>();
+
+    public TodoStatsChanges created(Long userId, boolean completed) {
+        return add(userId, 1, completed ? 1 : 0);
+    }
+
+    public TodoStatsChanges deleted(Long userId, boolean completed) {
+        return add(userId, -1, completed ? -1 : 0);
+    }
+
+    public TodoStatsChanges updated(Long userId, boolean wasCompleted, boolean completed) {
+        if (wasCompleted == completed) {
+            return this;
+        }
+        return add(userId, 0, completed ? 1 : -1);
+    }
+
+    public boolean isEmpty() {
+        return byUser.values().stream().allMatch(delta -> delta[0] == 0 && delta[1] == 0);
+    }
+
+    Map<Long, long[]> byUser() {
+        return byUser;
+    }
+
+    private TodoStatsChanges add(Long userId, long total, long completed) {
+        long[] delta = byUser.computeIfAbsent(userId, id -> new long[2]);
+        delta[0] += total;
+        delta[1] += completed;
+        return this;
+    }
+}
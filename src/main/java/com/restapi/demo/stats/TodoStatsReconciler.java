@@ -0,0 +1,148 @@
+package com.restapi.demo.stats;
+
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.TodoRepository.UserTodoTotals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the todo stats with the actual todo counts every application.todos.stats.reconcile-interval,
+ * and corrects the users whose stats have drifted (todos written around the application, a bug, ...).
+ * Users are checked in batches of ids, in a transaction per batch and todo partition. Their stats rows are
+ * locked before their todos are counted, so a concurrent todo write of one of them either commits before
+ * the count, or waits and then applies its change on top of the corrected row.
+ */
+@Slf4j
+@Component
+public class TodoStatsReconciler implements DisposableBean {
+
+    // Overwrites the user's row with the actual counts.
+    private static final String SET_SQL = "MERGE INTO todo_stats s "
+            + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS d (user_id, total, completed) "
+            + "ON s.user_id = d.user_id "
+            + "WHEN MATCHED THEN UPDATE SET total = d.total, completed = d.completed "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, total, completed) VALUES (d.user_id, d.total, d.completed)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TodoRepository todoRepository;
+    private final TodoPartitions partitions;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter corrections;
+    private final ScheduledFuture<?> schedule;
+
+    public TodoStatsReconciler(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TodoRepository todoRepository,
+            TodoPartitions partitions,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("todoStatsReconcileScheduler") TaskScheduler scheduler,
+            MeterRegistry meterRegistry,
+            @Value("${application.todos.stats.reconcile-interval:1h}") Duration interval,
+            @Value("${application.todos.stats.reconcile-batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.todoRepository = todoRepository;
+        this.partitions = partitions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.corrections = Counter.builder("app.todo.stats.corrections")
+                .description("Users whose todo stats had drifted and were corrected by the reconciler")
+                .register(meterRegistry);
+        this.schedule = interval.isZero()
+                ? null
+                : scheduler.scheduleWithFixedDelay(this::reconcileQuietly, Instant.now().plus(interval), interval);
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+    }
+
+    /**
+     * Checks the stats of every user and corrects those that drifted.
+     *
+     * @return the number of users whose stats were corrected
+     */
+    public long reconcile() {
+        long corrected = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> userIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE id > :lastId ORDER BY id FETCH FIRST " + batchSize + " ROWS ONLY",
+                    Map.of("lastId", lastId), Long.class);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            Map<Integer, List<Long>> userIdsByPartition = userIds.stream()
+                    .collect(Collectors.groupingBy(partitions::partitionOf, TreeMap::new, Collectors.toList()));
+            for (Map.Entry<Integer, List<Long>> entry : userIdsByPartition.entrySet()) {
+                corrected += transactionTemplate.execute(status -> reconcile(entry.getKey(), entry.getValue()));
+            }
+            lastId = userIds.get(userIds.size() - 1);
+        }
+        if (corrected > 0) {
+            log.warn("Corrected the todo stats of {} user(s)", corrected);
+        }
+        return corrected;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Todo stats reconciliation failed; it is retried at the next interval", e);
+        }
+    }
+
+    private long reconcile(int partition, List<Long> userIds) {
+        partitions.bind(partition);
+        Map<Long, TodoCounts> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, total, completed FROM todo_stats WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+                Map.of("userIds", userIds),
+                rs -> {
+                    stored.put(rs.getLong("user_id"), new TodoCounts(rs.getLong("total"), rs.getLong("completed")));
+                });
+        Map<Long, TodoCounts> actual = new HashMap<>();
+        for (UserTodoTotals totals : todoRepository.countTotalsByUserIdIn(userIds)) {
+            actual.put(totals.getUserId(), new TodoCounts(totals.getTodos(), totals.getCompleted()));
+        }
+
+        List<Object[]> fixes = new ArrayList<>();
+        for (Long userId : userIds) {
+            TodoCounts expected = actual.getOrDefault(userId, TodoCounts.NONE);
+            TodoCounts found = stored.getOrDefault(userId, TodoCounts.NONE);
+            if (!expected.equals(found)) {
+                log.warn("Todo stats of user {} had drifted: {} instead of {}", userId, found, expected);
+                fixes.add(new Object[]{userId, expected.total(), expected.completed()});
+            }
+        }
+        if (!fixes.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(SET_SQL, fixes);
+            corrections.increment(fixes.size());
+        }
+        return fixes.size();
+    }
+}
@@ -1,4 +1,17 @@
 package com.restapi.demo.util;
 
 public class AppConstants {
+
+    // --- Cache names ---
+    // Single TodoResponseDto entries, keyed by todo id.
+    public static final String TODO_CACHE = "todo";
+    // Page<TodoResponseDto> results, keyed by TodoPageKey (page generation, owner, filter and pageable).
+    public static final String TODO_PAGE_CACHE = "todoPages";
+
+    // --- Pagination ---
+    // Upper bound for the 'size' parameter of cursor-paginated listings.
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private AppConstants() {
+    }
 }
@@ -0,0 +1,137 @@
+package com.restapi.demo.util;
+
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Builds the validators for conditional requests on todos (ETag and Last-Modified).
+ * They are derived from ids, versions and update timestamps only, so they can be checked against a
+ * client's If-None-Match/If-Modified-Since before the response body is built or serialized.
+ * A single todo's ETag is its id and @Version, which also lets If-Match be turned back into a version.
+ */
+public final class ETagUtils {
+
+    private static final String VERSION_SEPARATOR = "-v";
+
+    // 128 bits of SHA-256 is plenty to tell representations apart and keeps the header short.
+    private static final int ETAG_BYTES = 16;
+
+    private ETagUtils() {
+    }
+
+    /**
+     * Checks the request's If-None-Match/If-Modified-Since against the given validators and, on a match,
+     * turns the response into a 304. Pass -1 when there is no Last-Modified value.
+     * The response is marked "private, no-cache": clients may keep the body but have to revalidate it,
+     * instead of Spring Security's default "no-store", which would stop them from caching it at all.
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String eTag, long lastModified) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    /**
+     * A strong ETag for a single todo: it changes whenever the todo is updated.
+     */
+    public static String forTodo(TodoResponseDto todo) {
+        return forTodo(todo.getId(), todo.getVersion());
+    }
+
+    public static String forTodo(Long id, Long version) {
+        return "\"" + id + VERSION_SEPARATOR + version + "\"";
+    }
+
+    /**
+     * The versions of the given todo named by an If-Match header, or null when the write is unconditional
+     * (no header, or "*", which any existing todo matches). Weak tags and tags of other todos are skipped,
+     * since they can never match; the result is empty if nothing could match.
+     */
+    public static Set<Long> parseTodoVersions(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        String prefix = id + VERSION_SEPARATOR;
+        for (ETag eTag : ETag.parse(ifMatch)) {
+            if (eTag.weak() || !eTag.tag().startsWith(prefix)) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(eTag.tag().substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // Not one of our tags, it can't match either.
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * An aggregate ETag for a list of todos: it changes when any todo on it is updated, or when todos
+     * are added, removed or reordered. {@code extra} covers whatever else the representation contains,
+     * e.g. the total count and page number, which change when todos on other pages come and go.
+     */
+    public static String forTodos(Collection<TodoResponseDto> todos, Object... extra) {
+        MessageDigest digest = sha256();
+        for (TodoResponseDto todo : todos) {
+            update(digest, todo);
+        }
+        for (Object value : extra) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ';');
+        }
+        return toETag(digest);
+    }
+
+    /**
+     * An aggregate ETag for a page of todos, including the paging metadata it is rendered with.
+     */
+    public static String forPage(Page<TodoResponseDto> page) {
+        return forTodos(page.getContent(), page.getTotalElements(), page.getNumber(), page.getSize());
+    }
+
+    /**
+     * The Last-Modified value of a todo in epoch milliseconds, or -1 if it was never stamped.
+     */
+    public static long lastModified(TodoResponseDto todo) {
+        return toEpochMilli(todo.getUpdatedAt());
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        // updatedAt is stamped with LocalDateTime.now(), i.e. in the JVM's default zone.
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    private static void update(MessageDigest digest, TodoResponseDto todo) {
+        digest.update((todo.getId() + VERSION_SEPARATOR + todo.getVersion() + "@" + todo.getUpdatedAt() + ";")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toETag(MessageDigest digest) {
+        return '"' + HexFormat.of().formatHex(digest.digest(), 0, ETAG_BYTES) + '"';
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Required on every JVM
+        }
+    }
+}
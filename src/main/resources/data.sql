@@ -38,6 +38,10 @@ INSERT INTO todos (id, title, description, completed, user_id, created_at, updat
 -- Todo for Bob (user_id=2)
 (4, 'Plan weekend trip', NULL, false, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
+-- The todo counts of the users above (the application maintains them for every todo it writes).
+INSERT INTO todo_stats (user_id, total, completed)
+SELECT user_id, COUNT(*), SUM(CASE WHEN completed THEN 1 ELSE 0 END) FROM todos GROUP BY user_id;
+
 
 -- =====================================================================================
 --       MANUALLY UPDATE THE SEQUENCE GENERATORS (OPTIONAL BUT GOOD PRACTICE)
@@ -52,4 +56,6 @@ INSERT INTO todos (id, title, description, completed, user_id, created_at, updat
 -- =====================================================================================
 
 ALTER TABLE users ALTER COLUMN id RESTART WITH (SELECT MAX(id) FROM users) + 1;
-ALTER TABLE todos ALTER COLUMN id RESTART WITH (SELECT MAX(id) FROM todos) + 1;
\ No newline at end of file
+-- Todo ids come from a pooled sequence (see schema.sql). Hibernate treats each value as the top
+-- of a block of 50 ids, so the sequence must restart at least one full block above the current max.
+ALTER SEQUENCE todos_seq RESTART WITH (SELECT MAX(id) FROM todos) + 50;
\ No newline at end of file
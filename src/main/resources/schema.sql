@@ -1,7 +1,9 @@
 -- Drop tables if they exist to ensure a clean slate on each startup.
 -- This is useful for development but should be used with caution.
+DROP TABLE IF EXISTS todo_stats;
 DROP TABLE IF EXISTS todos;
 DROP TABLE IF EXISTS users;
+DROP SEQUENCE IF EXISTS todos_seq;
 
 -- Create the 'users' table first because 'todos' has a foreign key to it.
 CREATE TABLE users (
@@ -9,18 +11,48 @@ CREATE TABLE users (
     username    VARCHAR(255) NOT NULL UNIQUE,
     email       VARCHAR(255) NOT NULL UNIQUE,
     password    VARCHAR(255) NOT NULL,
+    -- Optimistic locking counter (@Version), bumped by every update.
+    version     BIGINT DEFAULT 0 NOT NULL,
     PRIMARY KEY (id)
 );
 
+-- Todo ids come from a pooled sequence so Hibernate can batch inserts.
+-- INCREMENT BY must match the allocationSize of the Todo entity's @SequenceGenerator.
+CREATE SEQUENCE todos_seq START WITH 1 INCREMENT BY 50;
+
 -- Create the 'todos' table with a foreign key constraint to the 'users' table.
 CREATE TABLE todos (
-    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id              BIGINT NOT NULL,
     title           VARCHAR(255) NOT NULL,
     description     VARCHAR(255),
     completed       BOOLEAN NOT NULL,
     user_id         BIGINT NOT NULL,
     created_at      TIMESTAMP,
     updated_at      TIMESTAMP,
+    -- Optimistic locking counter (@Version), bumped by every update. It is also what todo ETags are made of.
+    version         BIGINT DEFAULT 0 NOT NULL,
     PRIMARY KEY (id),
     CONSTRAINT fk_todos_users FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Indexes for the filtered todo listings (GET /todos and GET /users/{id}/todos).
+-- Keep them in sync with the @Table(indexes = ...) of the Todo entity.
+-- Filters on userId + completed [+ createdAfter].
+CREATE INDEX idx_todos_user_completed_created ON todos (user_id, completed, created_at);
+-- Filters on userId + createdAfter, without completed.
+CREATE INDEX idx_todos_user_created ON todos (user_id, created_at);
+-- Filters on completed [+ createdAfter] without a user.
+CREATE INDEX idx_todos_completed_created ON todos (completed, created_at);
+-- Filters on createdAfter alone.
+CREATE INDEX idx_todos_created_at ON todos (created_at);
+
+-- Per-user todo counts, kept up to date by every todo write in the same transaction (see TodoStats),
+-- so they can be read without counting todos. TodoStatsReconciler corrects them if they ever drift.
+-- A user without a row has no todos.
+CREATE TABLE todo_stats (
+    user_id     BIGINT NOT NULL,
+    total       BIGINT DEFAULT 0 NOT NULL,
+    completed   BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_todo_stats_users FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
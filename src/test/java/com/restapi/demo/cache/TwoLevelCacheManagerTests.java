@@ -0,0 +1,93 @@
+package com.restapi.demo.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static com.restapi.demo.util.AppConstants.TODO_CACHE;
+import static com.restapi.demo.util.AppConstants.TODO_PAGE_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two nodes in one JVM, sharing the in-memory L2 and a loopback channel, to check that a write
+ * on one node is never served stale by the other.
+ */
+class TwoLevelCacheManagerTests {
+
+    private InMemorySharedCacheStore sharedStore;
+    private LoopbackInvalidationTransport transportA;
+    private LoopbackInvalidationTransport transportB;
+    private Cache nodeA;
+    private Cache nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        sharedStore = new InMemorySharedCacheStore(100);
+        transportA = new LoopbackInvalidationTransport();
+        transportB = transportA.newNode();
+        nodeA = node(transportA).getCache(TODO_CACHE);
+        nodeB = node(transportB).getCache(TODO_CACHE);
+    }
+
+    @Test
+    void missesAreServedFromTheSharedStoreAndWritesInvalidateTheOtherNode() {
+        assertThat(nodeA.get(1L, () -> "v1")).isEqualTo("v1");
+        assertThat(nodeB.get(1L, () -> "loaded again")).isEqualTo("v1");
+
+        nodeA.put(1L, "v2");
+        assertThat(nodeB.get(1L, () -> "loaded again")).isEqualTo("v2");
+
+        nodeB.evict(1L);
+        assertThat(nodeA.get(1L)).isNull();
+        assertThat(nodeA.get(1L, () -> "v3")).isEqualTo("v3");
+    }
+
+    @Test
+    void readsDontRefillTheSharedStoreRightAfterAnEviction() {
+        nodeA.get(1L, () -> "v1");
+        nodeA.evict(1L);
+
+        // A read that fetched the row before the eviction's commit must not put it back into L2.
+        nodeB.get(1L, () -> "stale");
+        assertThat(nodeA.get(1L, () -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void clearEmptiesEveryNode() {
+        nodeA.get(1L, () -> "v1");
+        nodeB.get(2L, () -> "v2");
+
+        nodeB.clear();
+
+        assertThat(nodeA.get(1L)).isNull();
+        assertThat(nodeA.get(2L)).isNull();
+    }
+
+    @Test
+    void pageGenerationBumpsReachTheOtherNode() {
+        TodoPageCacheVersion versionA = pageCacheVersion(transportA);
+        TodoPageCacheVersion versionB = pageCacheVersion(transportB);
+
+        versionA.invalidate();
+
+        assertThat(versionA.current()).isEqualTo(1);
+        assertThat(versionB.current()).isEqualTo(1);
+    }
+
+    private TwoLevelCacheManager node(CacheInvalidationTransport transport) {
+        CaffeineCacheManager localCacheManager = new CaffeineCacheManager(TODO_CACHE, TODO_PAGE_CACHE);
+        return new TwoLevelCacheManager(localCacheManager, sharedStore, transport, Set.of(TODO_CACHE),
+                Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    private static TodoPageCacheVersion pageCacheVersion(CacheInvalidationTransport transport) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("transport", transport));
+        return new TodoPageCacheVersion(beanFactory.getBeanProvider(CacheInvalidationTransport.class));
+    }
+}
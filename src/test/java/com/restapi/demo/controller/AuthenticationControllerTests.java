@@ -0,0 +1,102 @@
+package com.restapi.demo.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.restapi.demo.concurrency.PasswordHashingExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logins and registrations run on the bounded hashing pool: here one thread with room for one waiting task.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth",
+        "application.security.password-hashing.threads=1",
+        "application.security.password-hashing.queue-capacity=1",
+        "application.security.password-hashing.retry-after-seconds=3"
+})
+@AutoConfigureMockMvc
+class AuthenticationControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Test
+    void registersAndLogsInOnTheHashingPool() throws Exception {
+        String registered = completed(mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"hashing\", \"email\": \"hashing@example.com\", \"password\": \"s3cret!\"}")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(registered, "$.access_token");
+        mockMvc.perform(get("/todos").param("after", "").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        completed(mockMvc.perform(post("/auth/authenticate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"hashing\", \"password\": \"s3cret!\"}")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.access_token").isString());
+        completed(mockMvc.perform(post("/auth/authenticate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"hashing\", \"password\": \"wrong\"}")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void answers503WhenThePoolAndItsQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = passwordHashingExecutor.submit("test", () -> {
+            running.countDown();
+            return await(release);
+        });
+        try {
+            running.await(5, TimeUnit.SECONDS);
+            CompletableFuture<Boolean> queued = passwordHashingExecutor.submit("test", () -> true);
+
+            mockMvc.perform(post("/auth/authenticate").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\": \"nobody\", \"password\": \"irrelevant\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+
+            release.countDown();
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            busy.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private ResultActions completed(ResultActions started) throws Exception {
+        MvcResult result = started.andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.restapi.demo.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.restapi.demo.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The fixture of the controller tests: every test gets a fresh USER and its bearer token.
+ * Subclasses without properties of their own share one application context (and database).
+ * A subclass that needs other properties gets a context of its own and then also names its own
+ * in-memory database: every context start runs schema.sql, which would drop the tables under the others.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controllers")
+@AutoConfigureMockMvc
+abstract class ControllerTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    protected User user;
+    protected String bearerToken;
+
+    @BeforeEach
+    void authenticate() {
+        user = saveUser(Role.USER);
+        bearerToken = bearer(user);
+    }
+
+    protected User saveUser(Role role) {
+        String username = getClass().getSimpleName() + "-" + System.nanoTime();
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("not-used")
+                .role(role)
+                .build());
+    }
+
+    protected String bearer(User user) {
+        return "Bearer " + jwtService.generateToken(user);
+    }
+
+    protected MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, bearerToken);
+    }
+
+    /**
+     * Creates a todo of the test's user through the API and returns its id.
+     */
+    protected long createTodo(String title) throws Exception {
+        String body = mockMvc.perform(authorized(post("/todos")).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+}
@@ -0,0 +1,111 @@
+package com.restapi.demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restapi.demo.cache.ResponseBodyCache;
+import com.restapi.demo.service.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The optional response body cache, switched on and gzipping every body regardless of its size.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:responsebodies",
+        "application.cache.response-bodies.enabled=true",
+        "application.cache.response-bodies.gzip-min-size=1B"
+})
+class ResponseBodyCacheTests extends ControllerTestSupport {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void cachedBytesAreWhatJacksonWouldWrite() throws Exception {
+        long id = createTodo("Cached");
+        mockMvc.perform(authorized(get("/todos/{id}", id))).andExpect(status().isOk());
+        double hits = bodyCacheHits();
+
+        MockHttpServletResponse cached = mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertThat(bodyCacheHits()).isEqualTo(hits + 1);
+        assertThat(cached.getContentAsByteArray()).isEqualTo(objectMapper.writeValueAsBytes(todoService.getTodoById(id)));
+        assertThat(cached.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(cached.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + id + "-v0\"");
+        assertThat(cached.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void gzipIsChosenByAcceptEncoding() throws Exception {
+        long id = createTodo("Compressed");
+        byte[] json = mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        MockHttpServletResponse gzipped = mockMvc.perform(authorized(get("/todos/{id}", id))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+
+        MockHttpServletResponse refused = mockMvc.perform(authorized(get("/todos/{id}", id))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(refused.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(refused.getContentAsByteArray()).isEqualTo(json);
+    }
+
+    @Test
+    void writesInvalidateTheCachedBytes() throws Exception {
+        long id = createTodo("Before");
+        String eTag = mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(authorized(get("/todos/{id}", id)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(authorized(get("/todos").param("userId", user.getId().toString())))
+                .andExpect(jsonPath("$.content[0].title").value("Before"));
+
+        mockMvc.perform(authorized(put("/todos/{id}", id)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"After\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(authorized(get("/todos/{id}", id)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("After"));
+        mockMvc.perform(authorized(get("/todos").param("userId", user.getId().toString())))
+                .andExpect(jsonPath("$.content[0].title").value("After"));
+    }
+
+    private double bodyCacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ResponseBodyCache.CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,103 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs with chunks of 2 items and at most 5 items per batch.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch",
+        "application.todos.batch.max-items=5",
+        "application.todos.batch.chunk-size=2"
+})
+class TodoBatchControllerTests extends ControllerTestSupport {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createsInChunksAndOnlyRollsBackTheFailedChunk() throws Exception {
+        // Items 0, 2, 3 and 4 are valid, so they are written in the chunks [0, 2] and [3, 4].
+        // Item 3's description is too long for its column, which fails the whole second chunk.
+        String tooLong = "x".repeat(300);
+        perform(post("/todos/batch"), "["
+                + "{\"title\": \"chunk-a\", \"userId\": " + user.getId() + "},"
+                + "{\"title\": \" \", \"userId\": " + user.getId() + "},"
+                + "{\"title\": \"chunk-b\", \"userId\": " + user.getId() + "},"
+                + "{\"title\": \"chunk-c\", \"description\": \"" + tooLong + "\", \"userId\": " + user.getId() + "},"
+                + "{\"title\": \"chunk-d\", \"userId\": " + user.getId() + "}]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].id").isNumber())
+                .andExpect(jsonPath("$.results[1].error").value("title: Title cannot be blank"))
+                .andExpect(jsonPath("$.results[2].success").value(true))
+                .andExpect(jsonPath("$.results[3].error").value(containsString("rolled back")))
+                .andExpect(jsonPath("$.results[4].error").value(containsString("rolled back")));
+
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM todos WHERE title LIKE 'chunk-%' ORDER BY title", String.class))
+                .containsExactly("chunk-a", "chunk-b");
+    }
+
+    @Test
+    void rejectsEmptyBatchesAndBatchesOverTheLimit() throws Exception {
+        perform(post("/todos/batch"), "[]").andExpect(status().isBadRequest());
+        perform(delete("/todos/batch"), "[1, 2, 3, 4, 5, 6]")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("at most 5 items")));
+    }
+
+    @Test
+    void updatesAndDeletesReportEveryItem() throws Exception {
+        Todo todo = new Todo();
+        todo.setTitle("Batch target");
+        todo.setUser(user);
+        Long first = todoRepository.save(todo).getId();
+
+        perform(patch("/todos/batch"), "["
+                + "{\"id\": " + first + ", \"completed\": true},"
+                + "{\"id\": 999999, \"title\": \"Missing\"},"
+                + "{\"title\": \"No id\"}]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[1].error").value("Todo not found with id: 999999"))
+                .andExpect(jsonPath("$.results[2].error").value("id: Todo ID must be provided"));
+        assertThat(jdbcTemplate.queryForObject("SELECT completed FROM todos WHERE id = ?", Boolean.class, first)).isTrue();
+
+        perform(delete("/todos/batch"), "[" + first + ", 999999, null]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[1].error").value("Todo not found with id: 999999"))
+                .andExpect(jsonPath("$.results[2].error").value("Todo ID must be provided"));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE id = ?", Long.class, first)).isZero();
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, String body) throws Exception {
+        return mockMvc.perform(authorized(request)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
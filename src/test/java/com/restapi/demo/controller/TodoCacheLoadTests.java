@@ -0,0 +1,134 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.restapi.demo.service.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.restapi.demo.util.AppConstants.TODO_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Concurrent misses on the same todo share one load (@Cacheable(sync = true) on the async Caffeine caches).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cacheload",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class TodoCacheLoadTests {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void callersWaitingOnAMissShareTheLoad() throws Exception {
+        Cache cache = cacheManager.getCache(TODO_CACHE);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> cache.get(-1L, () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS); // Holds the load until every caller has missed
+                    return "loaded";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            }
+        } finally {
+            callers.shutdownNow();
+            cache.evict(-1L);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void concurrentGetsOfAnUncachedTodoQueryTheDatabaseOnce() throws Exception {
+        User user = userRepository.save(User.builder()
+                .username("cache-load")
+                .email("cache-load@example.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+        Todo todo = new Todo();
+        todo.setTitle("Hot todo");
+        todo.setUser(user);
+        Long id = todoRepository.save(todo).getId();
+        String bearerToken = "Bearer " + jwtService.generateToken(user);
+        // Caches the caller's principal, so the requests below don't each load the user.
+        mockMvc.perform(get("/todos/{id}", -1L).header(HttpHeaders.AUTHORIZATION, bearerToken))
+                .andExpect(status().isNotFound());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CyclicBarrier start = new CyclicBarrier(CALLERS);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    mockMvc.perform(get("/todos/{id}", id).header(HttpHeaders.AUTHORIZATION, bearerToken))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.title").value("Hot todo"));
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
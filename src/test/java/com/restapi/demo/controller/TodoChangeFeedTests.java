@@ -0,0 +1,121 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.dto.todo.TodoChangeType;
+import com.restapi.demo.events.TodoChangeFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /todos/changes: per-user filtering, resuming with Last-Event-ID and the connection cap.
+ * The streams are read from the mock response, which the emitter keeps writing to after the request returned.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes",
+        "application.todos.changes.max-subscribers=5"
+})
+class TodoChangeFeedTests extends ControllerTestSupport {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Autowired
+    private TodoChangeFeed todoChangeFeed;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<MvcResult> streams = new ArrayList<>();
+
+    @AfterEach
+    void disconnect() {
+        // Completing the async request runs the emitter's completion callback, which unsubscribes it.
+        streams.forEach(stream -> stream.getRequest().getAsyncContext().complete());
+        streams.clear();
+    }
+
+    @Test
+    void resumesAfterLastEventIdAndResetsWhenItIsTooOld() throws Exception {
+        MockHttpServletResponse live = subscribe(null);
+        todoChangeFeed.publish(TodoChangeType.CREATED, 1L, user.getId(), 0L);
+        todoChangeFeed.publish(TodoChangeType.UPDATED, 1L, user.getId(), 1L);
+        todoChangeFeed.publish(TodoChangeType.CREATED, 2L, user.getId() + 1000, 0L); // Someone else's todo
+        todoChangeFeed.publish(TodoChangeType.DELETED, 1L, user.getId(), 1L);
+
+        List<Long> ids = awaitEventIds(live, 3);
+        assertThat(live.getContentAsString()).doesNotContain("\"todo_id\":2");
+
+        // Missed everything after the first event: the other two are replayed, in order.
+        MockHttpServletResponse resumed = subscribe(ids.get(0).toString());
+        assertThat(awaitEventIds(resumed, 2)).containsExactly(ids.get(1), ids.get(2));
+        assertThat(resumed.getContentAsString()).contains("\"type\":\"UPDATED\"").contains("\"type\":\"DELETED\"");
+
+        // Events from before the replay buffer (e.g. before a restart) can't be replayed.
+        MockHttpServletResponse reset = subscribe("1");
+        awaitContent(reset, "\"type\":\"RESET\"");
+        assertThat(EVENT_ID.matcher(reset.getContentAsString()).find()).isFalse();
+
+        mockMvc.perform(authorized(get("/todos/changes")).header("Last-Event-ID", "not-a-number"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void answers503OverMaxSubscribers() throws Exception {
+        while (meterRegistry.get("app.todo.changes.subscribers").gauge().value() < 5) {
+            subscribe(null);
+        }
+        mockMvc.perform(authorized(get("/todos/changes")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = authorized(get("/todos/changes").param("userId", user.getId().toString()));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult stream = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        streams.add(stream);
+        return stream.getResponse();
+    }
+
+    private List<Long> awaitEventIds(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            Matcher matcher = EVENT_ID.matcher(response.getContentAsString());
+            List<Long> ids = matcher.results().map(result -> Long.parseLong(result.group(1))).toList();
+            if (ids.size() >= count || System.currentTimeMillis() > deadline) {
+                assertThat(ids).hasSize(count);
+                return ids;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(response.getContentAsString()).contains(expected);
+    }
+}
@@ -0,0 +1,146 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.mapper.TodoMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional requests on todos: 304s for If-None-Match/If-Modified-Since on reads, and If-Match writes
+ * that answer 412 on a stale ETag, 404 on a missing todo and 409 when a @Version check fails on flush.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional")
+class TodoConditionalRequestTests extends ControllerTestSupport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private TodoMapper todoMapper;
+
+    @Test
+    void getByIdAnswers304UntilTheTodoChanges() throws Exception {
+        long id = createTodo("Read me");
+
+        MvcResult first = mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(authorized(get("/todos/{id}", id)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(authorized(get("/todos/{id}", id)).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(authorized(put("/todos/{id}", id)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Changed\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isOk());
+        String newETag = mockMvc.perform(authorized(get("/todos/{id}", id)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newETag).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void listAnswers304UntilATodoIsAdded() throws Exception {
+        createTodo("First");
+        String eTag = mockMvc.perform(authorized(get("/todos").param("userId", user.getId().toString())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(authorized(get("/todos").param("userId", user.getId().toString()))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        createTodo("Second");
+        mockMvc.perform(authorized(get("/todos").param("userId", user.getId().toString()))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ifMatchWritesSucceedOnTheCurrentETagOnly() throws Exception {
+        long id = createTodo("Edit me");
+        String eTag = eTagOf(id);
+
+        String newETag = mockMvc.perform(authorized(put("/todos/{id}", id)).header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Edited\", \"completed\": true, \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newETag).isEqualTo("\"" + id + "-v1\"").isEqualTo(eTagOf(id));
+
+        // Both writes still carry the ETag read before the update.
+        mockMvc.perform(authorized(put("/todos/{id}", id)).header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Lost update\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(authorized(delete("/todos/{id}", id)).header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(jsonPath("$.title").value("Edited"))
+                .andExpect(jsonPath("$.is_completed").value(true));
+
+        mockMvc.perform(authorized(delete("/todos/{id}", id)).header(HttpHeaders.IF_MATCH, newETag))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void ifMatchWritesOfAMissingTodoAre404() throws Exception {
+        mockMvc.perform(authorized(put("/todos/{id}", 999999)).header(HttpHeaders.IF_MATCH, "\"999999-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Nothing\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(authorized(delete("/todos/{id}", 999999)).header(HttpHeaders.IF_MATCH, "\"999999-v0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void concurrentUpdateBetweenReadAndFlushIs409() throws Exception {
+        long id = createTodo("Contended");
+        // Another writer commits right after the unconditional PUT has read the todo.
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "UPDATE todos SET version = version + 1 WHERE id = ?", id)).join();
+            return invocation.callRealMethod();
+        }).when(todoMapper).updateTodoFromDto(any(TodoRequestDto.class), any(Todo.class));
+
+        mockMvc.perform(authorized(put("/todos/{id}", id)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Loser\", \"userId\": " + user.getId() + "}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(jsonPath("$.title").value("Contended"));
+    }
+
+    private String eTagOf(long id) throws Exception {
+        return mockMvc.perform(authorized(get("/todos/{id}", id)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
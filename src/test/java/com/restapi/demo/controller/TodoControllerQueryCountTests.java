@@ -0,0 +1,208 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.restapi.demo.service.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the read endpoints against N+1 regressions by asserting how many JDBC statements each one prepares.
+ * The todos are spread over several owners, so lazily loading each owner would show up as extra statements.
+ * Also checks that If-Match writes stay a single statement on todos, the todo stats included.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.restapi.demo.controller.TodoControllerQueryCountTests$RecordingStatementInspector"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoControllerQueryCountTests {
+
+    private static final int OWNERS = 5;
+    private static final int TODOS_PER_OWNER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String bearerToken;
+    private Long todoId;
+
+    @BeforeAll
+    void seed() {
+        List<Todo> todos = new ArrayList<>();
+        for (int owner = 0; owner < OWNERS; owner++) {
+            User user = userRepository.save(User.builder()
+                    .username("query-count-" + owner)
+                    .email("query-count-" + owner + "@example.com")
+                    .password("not-used")
+                    .role(Role.USER)
+                    .build());
+            for (int i = 0; i < TODOS_PER_OWNER; i++) {
+                Todo todo = new Todo();
+                todo.setTitle("Todo " + i + " of " + user.getUsername());
+                todo.setUser(user);
+                todos.add(todo);
+            }
+        }
+        todoId = todoRepository.saveAll(todos).get(0).getId();
+        bearerToken = "Bearer " + jwtService.generateToken(userRepository.findByUsername("query-count-0").orElseThrow());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetCachesAndStatistics() throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        // Authenticate once so the principal lookup is cached and not counted below.
+        mockMvc.perform(get("/todos/{id}", todoId).header("Authorization", bearerToken)).andExpect(status().isOk());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void todoPageUsesOneSelectAndOneCount() throws Exception {
+        perform("/todos?size=5")
+                .andExpect(jsonPath("$.content[0].username").exists());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void todoByIdUsesOneSelect() throws Exception {
+        perform("/todos/" + todoId)
+                .andExpect(jsonPath("$.username").value("query-count-0"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cursorPageUsesOneSelect() throws Exception {
+        perform("/todos?after=&size=100")
+                .andExpect(jsonPath("$.content[0].username").exists());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ifMatchUpdateIsOneStatementOnTodos() throws Exception {
+        Long id = newTodo();
+        Long userId = userRepository.findByUsername("query-count-0").orElseThrow().getId();
+        statistics.clear();
+
+        mockMvc.perform(put("/todos/{id}", id).header("Authorization", bearerToken)
+                        .header(HttpHeaders.IF_MATCH, "\"" + id + "-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Renamed\", \"userId\": " + userId + "}"))
+                .andExpect(status().isNoContent());
+        assertThat(statementsOnTodos()).singleElement().asString().startsWith("update todos");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // Completing it also changes the stats: the stats statement reads the row itself, no select runs first.
+        RecordingStatementInspector.STATEMENTS.clear();
+        statistics.clear();
+        mockMvc.perform(put("/todos/{id}", id).header("Authorization", bearerToken)
+                        .header(HttpHeaders.IF_MATCH, "\"" + id + "-v1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Renamed\", \"completed\": true, \"userId\": " + userId + "}"))
+                .andExpect(status().isNoContent());
+        assertThat(statementsOnTodos()).singleElement().asString().startsWith("update todos");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void ifMatchDeleteIsOneStatementOnTodos() throws Exception {
+        Long id = newTodo();
+
+        mockMvc.perform(delete("/todos/{id}", id).header("Authorization", bearerToken)
+                        .header(HttpHeaders.IF_MATCH, "\"" + id + "-v0\""))
+                .andExpect(status().isNoContent());
+
+        assertThat(statementsOnTodos()).singleElement().asString().startsWith("delete from todos");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // A todo of its own, so the If-Match tests don't change the ones the listings count.
+    private Long newTodo() {
+        Todo todo = new Todo();
+        todo.setTitle("If-Match target");
+        todo.setUser(userRepository.findByUsername("query-count-0").orElseThrow());
+        Long id = todoRepository.save(todo).getId();
+        statistics.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+        return id;
+    }
+
+    // The statements that read or write todos, other than the todo stats MERGE (which reads the row it counts),
+    // without the comment hibernate.use_sql_comments puts in front of them.
+    private static List<String> statementsOnTodos() {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .map(sql -> sql.replaceFirst("^/\\*.*?\\*/\\s*", "").toLowerCase(Locale.ROOT))
+                .filter(sql -> TODOS_TABLE.matcher(sql).find() && !sql.startsWith("merge into todo_stats"))
+                .toList();
+    }
+
+    private static final Pattern TODOS_TABLE = Pattern.compile("\\btodos\\b");
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    private ResultActions perform(String url) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", bearerToken)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,69 @@
+package com.restapi.demo.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks GET /todos?after= page by page, following next_cursor.
+ */
+class TodoCursorPaginationTests extends ControllerTestSupport {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followingNextCursorVisitsEveryTodoOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createTodo("Cursor " + i);
+        }
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM todos ORDER BY id", Long.class);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            String body = mockMvc.perform(authorized(get("/todos")).param("after", cursor).param("size", String.valueOf(PAGE_SIZE)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.metadata.per_page").value(PAGE_SIZE))
+                    .andReturn().getResponse().getContentAsString();
+            List<Number> ids = JsonPath.read(body, "$.content[*].id");
+            assertThat(ids).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            ids.forEach(id -> seen.add(id.longValue()));
+            Map<String, Object> metadata = JsonPath.read(body, "$.metadata");
+            cursor = (String) metadata.get("next_cursor");
+            if (cursor == null) {
+                // The last page has no cursor and no link to a next page.
+                assertThat(metadata).doesNotContainKey("next_page_url");
+            } else {
+                assertThat(ids).hasSize(PAGE_SIZE);
+            }
+            pages++;
+        }
+
+        assertThat(pages).isGreaterThanOrEqualTo(3);
+        // In id order, without overlaps or gaps.
+        assertThat(seen).isEqualTo(expected);
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        // Not Base64, and Base64 that doesn't decode to a cursor.
+        mockMvc.perform(authorized(get("/todos")).param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/todos")).param("after", "bm9wZQ"))
+                .andExpect(status().isBadRequest());
+    }
+}
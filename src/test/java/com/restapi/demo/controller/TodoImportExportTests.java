@@ -0,0 +1,88 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /todos/import and GET /todos/export, with batches of 2 rows so a small upload spans several of them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import",
+        "application.todos.import.batch-size=2"
+})
+class TodoImportExportTests extends ControllerTestSupport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidNdjsonLinesAndReportsTheRejectedOnes() throws Exception {
+        String body = String.join("\n",
+                "{\"title\": \"One\", \"userId\": " + user.getId() + "}",
+                "{not json",
+                "{\"title\": \"Two\", \"completed\": true, \"user_id\": " + user.getId() + "}",
+                "{\"title\": \"\", \"userId\": " + user.getId() + "}",
+                "",
+                "{\"title\": \"Orphan\", \"userId\": 999999}",
+                "{\"title\": \"Three\", \"userId\": " + user.getId() + "}");
+
+        mockMvc.perform(authorized(post("/todos/import")).contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_rows").value(6))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value(startsWith("Invalid JSON")))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[2].line").value(6))
+                .andExpect(jsonPath("$.errors[2].error").value("User not found with id: 999999"));
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT title FROM todos WHERE user_id = ? ORDER BY title", String.class, user.getId()))
+                .containsExactly("One", "Three", "Two");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT completed FROM todos WHERE title = 'Two' AND user_id = ?", Boolean.class, user.getId())).isTrue();
+    }
+
+    @Test
+    void csvExportImportsUnchanged() throws Exception {
+        long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos", Long.class);
+
+        MvcResult export = mockMvc.perform(authorized(get("/todos/export").param("format", "csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(csv.lines().count()).isEqualTo(before + 1); // The header, then one line per todo
+
+        mockMvc.perform(authorized(post("/todos/import")).param("format", "csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(before))
+                .andExpect(jsonPath("$.failed").value(0));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos", Long.class)).isEqualTo(2 * before);
+    }
+
+    @Test
+    void rejectsUnknownFormats() throws Exception {
+        mockMvc.perform(authorized(get("/todos/export").param("format", "xml")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(post("/todos/import").param("format", "xml")).content("title\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
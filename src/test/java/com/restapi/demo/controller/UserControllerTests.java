@@ -0,0 +1,47 @@
+package com.restapi.demo.controller;
+
+import com.restapi.demo.entity.User;
+import com.restapi.demo.security.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerTests extends ControllerTestSupport {
+
+    @Test
+    void listsUsersPageByPage() throws Exception {
+        User newest = saveUser(Role.USER);
+
+        mockMvc.perform(authorized(get("/users")).param("size", "2").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(newest.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(user.getId()))
+                .andExpect(jsonPath("$.content[0].password").doesNotExist())
+                .andExpect(jsonPath("$.metadata.per_page").value(2))
+                .andExpect(jsonPath("$.metadata.total").value(userRepository.count()));
+    }
+
+    @Test
+    void sortingIsLimitedToThePublicColumns() throws Exception {
+        mockMvc.perform(authorized(get("/users")).param("sort", "username"))
+                .andExpect(status().isOk());
+        mockMvc.perform(authorized(get("/users")).param("sort", "password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/users")).param("sort", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statsAreForAdminsOnly() throws Exception {
+        mockMvc.perform(authorized(get("/users/stats")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/users/stats").header(HttpHeaders.AUTHORIZATION, bearer(saveUser(Role.ADMIN))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_users").value(userRepository.count()));
+    }
+}
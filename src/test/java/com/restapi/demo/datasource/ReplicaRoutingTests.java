@@ -0,0 +1,117 @@
+package com.restapi.demo.datasource;
+
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two H2 databases: the primary, and a "replica" holding a user the primary doesn't have,
+ * so every read shows which of them it went to. The first replica URL points at nothing, to be ejected.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "application.datasource.replicas.enabled=true",
+        "application.datasource.replicas.urls=jdbc:h2:tcp://localhost:1/unreachable,"
+                + ReplicaRoutingTests.REPLICA_URL,
+        "application.datasource.replicas.connection-timeout=250ms",
+        "application.datasource.replicas.health-check-interval=1h",
+        "application.datasource.replicas.read-your-writes-window=1m"
+})
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_ONLY_USER = "replica-only";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void createReplica() {
+        DataSource replica = new SimpleDriverDataSource(new Driver(), REPLICA_URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replica);
+        new JdbcTemplate(replica).update("INSERT INTO users (username, email, password) VALUES (?, ?, ?)",
+                REPLICA_ONLY_USER, "replica-only@example.com", "password");
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAHealthyReplicaAndWritesToThePrimary() {
+        signInAs("bob");
+
+        assertThat(readOnly(() -> userRepository.existsByUsername(REPLICA_ONLY_USER))).isTrue();
+        assertThat(readOnly(() -> userRepository.existsByUsername(REPLICA_ONLY_USER))).isTrue();
+        assertThat(readWrite(() -> userRepository.existsByUsername(REPLICA_ONLY_USER))).isFalse();
+        assertThat(replicaPool.healthyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void aWriterReadsItsOwnWritesFromThePrimaryWhileOthersStayOnTheReplica() {
+        signInAs("alice");
+        readWrite(() -> userRepository.save(User.builder()
+                .username("written-by-alice")
+                .email("written-by-alice@example.com")
+                .password("password")
+                .role(Role.USER)
+                .build()));
+
+        assertThat(readOnly(() -> userRepository.existsByUsername("written-by-alice"))).isTrue();
+
+        signInAs("carol");
+        assertThat(readOnly(() -> userRepository.existsByUsername(REPLICA_ONLY_USER))).isTrue();
+    }
+
+    @Test
+    void stillUnwrapsToThePrimaryPool() throws Exception {
+        assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+        assertThat(dataSource.unwrap(HikariDataSource.class).getPoolName()).isEqualTo("primary");
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> work.get());
+    }
+
+    private <T> T readWrite(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private static void signInAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.restapi.demo.metrics;
+
+import com.restapi.demo.entity.Todo;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.restapi.demo.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the service, JWT and cache metrics end up in the Prometheus scrape output.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusMetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void exportsServiceJwtAndCacheMetrics() throws Exception {
+        User user = userRepository.save(User.builder()
+                .username("metrics-user")
+                .email("metrics-user@example.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+        Todo todo = new Todo();
+        todo.setTitle("Measured todo");
+        todo.setUser(user);
+        Long todoId = todoRepository.save(todo).getId();
+        String bearerToken = "Bearer " + jwtService.generateToken(user);
+
+        // The first request verifies the token, the second one is served from the principal cache.
+        mockMvc.perform(get("/todos/{id}", todoId).header("Authorization", bearerToken)).andExpect(status().isOk());
+        mockMvc.perform(get("/todos/{id}", todoId).header("Authorization", bearerToken)).andExpect(status().isOk());
+        assertThatThrownBy(() -> mockMvc.perform(get("/todos").header("Authorization", "Bearer not-a-jwt")));
+
+        // The scrape endpoint is for admins only.
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", bearerToken)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        User admin = userRepository.save(User.builder()
+                .username("metrics-admin")
+                .email("metrics-admin@example.com")
+                .password("not-used")
+                .role(Role.ADMIN)
+                .build());
+        String adminToken = "Bearer " + jwtService.generateToken(admin);
+
+        List<String> lines = Arrays.asList(mockMvc.perform(get("/actuator/prometheus").header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n"));
+
+        assertThat(lines).anyMatch(line -> line.startsWith("app_service_seconds_count{")
+                && line.contains("class=\"TodoServiceImpl\"") && line.contains("method=\"getTodoById\"")
+                && line.contains("outcome=\"SUCCESS\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("app_jwt_validation_seconds_count{")
+                && line.contains("source=\"token\"") && line.contains("outcome=\"SUCCESS\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("app_jwt_validation_seconds_count{")
+                && line.contains("source=\"cache\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("app_jwt_validation_seconds_count{")
+                && line.contains("outcome=\"FAILURE\"") && line.contains("reason=\"malformed\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("cache_gets_total{") && line.contains("cache=\"todo\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("cache_gets_total{") && line.contains("cache=\"jwtPrincipals\""));
+    }
+}
@@ -0,0 +1,219 @@
+package com.restapi.demo.partition;
+
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.user.UserStatsResponseDto;
+import com.restapi.demo.dto.user.UserTodoCountDto;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.exception.BadRequestException;
+import com.restapi.demo.exception.ResourceNotFoundException;
+import com.restapi.demo.repository.TodoRepository;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.security.Role;
+import com.restapi.demo.service.TodoService;
+import com.restapi.demo.service.UserStatsService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs with todos in 4 partitions. The seed todos of data.sql are resharded from the todos table at startup.
+ * Users are added so that every partition holds todos.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:partitioned",
+        "application.todos.partitions.count=4",
+        "application.todos.partitions.reshard-from=1",
+        "application.todos.partitions.max-offset=20"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoPartitionTests {
+
+    private static final int PARTITIONS = 4;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoReshardTool reshardTool;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeAll
+    void createTodosInEveryPartition() {
+        userIds.addAll(List.of(1L, 2L));
+        for (int i = 0; i < 2; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .username("partitioned-" + i)
+                    .email("partitioned-" + i + "@example.com")
+                    .password("password")
+                    .role(Role.USER)
+                    .build()).getId());
+        }
+        for (Long userId : userIds) {
+            for (int i = 0; i < 3; i++) {
+                todoService.createTodo(request("Todo " + i + " of " + userId, userId));
+            }
+        }
+    }
+
+    @Test
+    void todosAreStoredInTheirOwnersPartition() {
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            List<Long> owners = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT user_id FROM " + TodoPartitions.tableName(PARTITIONS, partition), Long.class);
+            assertThat(owners).isNotEmpty();
+            for (Long owner : owners) {
+                assertThat(TodoPartitions.partitionOf(owner, PARTITIONS)).isEqualTo(partition);
+            }
+        }
+        // The seed todos were copied, with their ids.
+        assertThat(todoService.getTodoById(4L).getTitle()).isEqualTo("Plan weekend trip");
+    }
+
+    @Test
+    void listingsAcrossPartitionsAreMergedInOrder() {
+        List<Long> expectedIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM (" + unionOfPartitions("id, title") + ") ORDER BY title, id", Long.class)
+                .subList(3, 6);
+
+        Page<TodoResponseDto> page = todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(1, 3, Sort.by("title")));
+
+        assertThat(page.getContent()).extracting(TodoResponseDto::getId).containsExactlyElementsOf(expectedIds);
+        assertThat(page.getTotalElements()).isEqualTo(totalTodos());
+
+        List<Long> firstIds = jdbcTemplate.queryForList(unionOfPartitions("id") + " ORDER BY id FETCH FIRST 5 ROWS ONLY", Long.class);
+        assertThat(todoService.getTodosAfter(null, 5).getContent())
+                .extracting(TodoResponseDto::getId).containsExactlyElementsOf(firstIds);
+    }
+
+    @Test
+    void mergedListingsPlaceNullsLikeTheDatabase() {
+        // Only the seed todos have descriptions, so most rows sort on a null.
+        List<Long> nativeOrder = jdbcTemplate.queryForList("SELECT id FROM (" + unionOfPartitions("id, description")
+                + ") ORDER BY description DESC, id FETCH FIRST 8 ROWS ONLY", Long.class);
+        assertThat(todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(0, 8, Sort.by(Sort.Order.desc("description")))))
+                .extracting(TodoResponseDto::getId).containsExactlyElementsOf(nativeOrder);
+
+        List<Long> nullsLast = jdbcTemplate.queryForList("SELECT id FROM (" + unionOfPartitions("id, description")
+                + ") ORDER BY description ASC NULLS LAST, id FETCH FIRST 8 ROWS ONLY", Long.class);
+        assertThat(todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(0, 8, Sort.by(Sort.Order.asc("description").nullsLast()))))
+                .extracting(TodoResponseDto::getId).containsExactlyElementsOf(nullsLast);
+    }
+
+    @Test
+    void sortPropertiesMissingFromTheTodoAreRejected() {
+        assertThatThrownBy(() -> todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(0, 5, Sort.by("user.email"))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("user.email");
+    }
+
+    @Test
+    void deepPagesAcrossPartitionsAreRejected() {
+        assertThat(todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(4, 5))).isNotNull();
+        assertThatThrownBy(() -> todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(5, 5)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("'after'");
+        assertThatThrownBy(() -> todoService.getAllTodos(new TodoFilterDto(), PageRequest.of(Integer.MAX_VALUE - 1, 100)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void aUsersListingOnlyReadsTheirPartition() {
+        Long userId = userIds.get(3);
+
+        Page<TodoResponseDto> page = todoService.getTodosByUser(userId, new TodoFilterDto(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).isNotEmpty().allMatch(todo -> todo.getUserId().equals(userId));
+    }
+
+    @Test
+    void writesByIdFindTheirPartition() {
+        Long userId = userIds.get(2);
+        TodoResponseDto created = todoService.createTodo(request("To be renamed", userId));
+
+        todoService.updateTodo(created.getId(), request("Renamed", null));
+        String table = TodoPartitions.tableName(PARTITIONS, TodoPartitions.partitionOf(userId, PARTITIONS));
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM " + table + " WHERE id = ?", String.class, created.getId()))
+                .isEqualTo("Renamed");
+
+        todoService.deleteTodo(created.getId());
+        assertThatThrownBy(() -> todoService.getTodoById(created.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> todoService.deleteTodo(created.getId())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void userStatsAddUpTheRangesOfEveryPartition() {
+        UserStatsResponseDto stats = userStatsService.getUserStats();
+
+        assertThat(stats.getTotalUsers()).isEqualTo(userRepository.count());
+        assertThat(stats.getTotalTodos()).isEqualTo(totalTodos());
+        assertThat(stats.getCompletedTodos()).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (" + unionOfPartitions("completed") + ") WHERE completed", Long.class));
+        assertThat(stats.getActiveUsers()).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT user_id) FROM (" + unionOfPartitions("user_id, updated_at") + ") WHERE updated_at >= ?",
+                Long.class, stats.getActiveSince()));
+        List<Long> expectedTopUsers = jdbcTemplate.queryForList("SELECT user_id FROM (" + unionOfPartitions("user_id")
+                + ") GROUP BY user_id ORDER BY COUNT(*) DESC, user_id FETCH FIRST 10 ROWS ONLY", Long.class);
+        assertThat(stats.getTopUsers()).extracting(UserTodoCountDto::getUserId).containsExactlyElementsOf(expectedTopUsers);
+    }
+
+    @Test
+    void statementsOutsideAPartitionFail() {
+        assertThatThrownBy(() -> todoRepository.count()).hasStackTraceContaining("bound to a todo partition");
+    }
+
+    @Test
+    void reshardingKeepsEveryTodo() {
+        List<Long> rows = reshardTool.reshard(PARTITIONS, 2);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0) + rows.get(1)).isEqualTo(totalTodos());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos_2_1 WHERE MOD(user_id, 2) <> 1", Long.class))
+                .isZero();
+    }
+
+    private static TodoRequestDto request(String title, Long userId) {
+        TodoRequestDto request = new TodoRequestDto();
+        request.setTitle(title);
+        request.setUserId(userId);
+        return request;
+    }
+
+    private long totalTodos() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + unionOfPartitions("id") + ")", Long.class);
+    }
+
+    private static String unionOfPartitions(String columns) {
+        List<String> selects = new ArrayList<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            selects.add("SELECT " + columns + " FROM " + TodoPartitions.tableName(PARTITIONS, partition));
+        }
+        return String.join(" UNION ALL ", selects);
+    }
+}
@@ -0,0 +1,86 @@
+package com.restapi.demo.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with H2's EXPLAIN that every filter shape of the todo listings is served by its composite index
+ * instead of a table scan. The statements mirror the SQL that TodoRepositoryCustomImpl generates for
+ * the page query and its count query.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoIndexPlanTests {
+
+    private static final String OWNER_PREFIX = "index-plan-";
+    private static final int OWNERS = 20;
+    private static final int TODOS_PER_OWNER = 50;
+
+    private static final String SELECT = "SELECT t.id, t.title, t.description, t.completed, u.id, u.username, "
+            + "t.created_at, t.updated_at, t.version FROM todos t JOIN users u ON u.id = t.user_id WHERE ";
+    private static final String COUNT = "SELECT COUNT(t.id) FROM todos t WHERE ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * H2 picks indexes by cost, so the table needs realistic data and fresh selectivity statistics
+     * for the plans to mean anything.
+     */
+    @BeforeAll
+    void seed() {
+        List<Object[]> todos = new ArrayList<>();
+        for (int owner = 0; owner < OWNERS; owner++) {
+            String username = OWNER_PREFIX + owner;
+            jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES (?, ?, ?)",
+                    username, username + "@example.com", "not-used");
+            Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+            for (int i = 0; i < TODOS_PER_OWNER; i++) {
+                todos.add(new Object[]{"Todo " + i, i % 3 == 0, userId, owner * TODOS_PER_OWNER + i});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO todos (id, title, completed, user_id, created_at) "
+                + "VALUES (NEXT VALUE FOR todos_seq, ?, ?, ?, DATEADD('MINUTE', ?, TIMESTAMP '2024-01-01 00:00:00'))", todos);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        // The todos go with their owners (ON DELETE CASCADE).
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", OWNER_PREFIX + "%");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = ';', value = {
+            // Any index leading with user_id will do here, including the one H2 creates for the foreign key.
+            "userId; t.user_id = 1; (FK_TODOS_USERS|IDX_TODOS_USER_)\\w*: USER_ID =",
+            "userId + completed; t.user_id = 1 AND t.completed = TRUE; IDX_TODOS_USER_COMPLETED_CREATED:",
+            "userId + completed + createdAfter; t.user_id = 1 AND t.completed = TRUE AND t.created_at > TIMESTAMP '2024-01-01 12:00:00'; IDX_TODOS_USER_COMPLETED_CREATED:",
+            "userId + createdAfter; t.user_id = 1 AND t.created_at > TIMESTAMP '2024-01-01 12:00:00'; IDX_TODOS_USER_CREATED:",
+            "completed; t.completed = FALSE; IDX_TODOS_COMPLETED_CREATED:",
+            "completed + createdAfter; t.completed = FALSE AND t.created_at > TIMESTAMP '2024-01-01 12:00:00'; IDX_TODOS_COMPLETED_CREATED:",
+            "createdAfter; t.created_at > TIMESTAMP '2024-01-01 12:00:00'; IDX_TODOS_CREATED_AT:"
+    })
+    void everyFilterShapeUsesItsIndex(String shape, String predicate, String expectedIndexPattern) {
+        // H2 prints the chosen access path as "/* PUBLIC.<INDEX>: <condition> */", or "tableScan" without one.
+        Pattern expectedIndex = Pattern.compile("/\\* PUBLIC\\." + expectedIndexPattern);
+        assertThat(explain(SELECT + predicate)).as("page query plan").containsPattern(expectedIndex);
+        assertThat(explain(COUNT + predicate)).as("count query plan").containsPattern(expectedIndex);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
@@ -0,0 +1,116 @@
+package com.restapi.demo.security;
+
+import com.restapi.demo.dto.user.UserRequestDto;
+import com.restapi.demo.entity.User;
+import com.restapi.demo.repository.UserRepository;
+import com.restapi.demo.service.JwtService;
+import com.restapi.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtPrincipalCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtPrincipalCache principalCache;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repeatRequestsAreServedFromTheCacheAsADetachedSnapshot() throws Exception {
+        User user = createUser("cached-principal");
+        String token = jwtService.generateToken(user);
+        long hits = principalCache.getHitCount();
+        long misses = principalCache.getMissCount();
+
+        authenticatedGet(user, token);
+        assertThat(principalCache.getMissCount()).isEqualTo(misses + 1);
+        authenticatedGet(user, token);
+        assertThat(principalCache.getHitCount()).isEqualTo(hits + 1);
+
+        JwtPrincipal principal = principalCache.get(token);
+        assertThat(principal.userId()).isEqualTo(user.getId());
+        assertThat(principal.getName()).isEqualTo("cached-principal");
+        assertThat(principal.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("USER");
+    }
+
+    @Test
+    void updatingOrDeletingAUserEvictsOnlyTheirPrincipals() throws Exception {
+        User updated = createUser("updated-principal");
+        User deleted = createUser("deleted-principal");
+        User other = createUser("other-principal");
+        String updatedToken = jwtService.generateToken(updated);
+        String deletedToken = jwtService.generateToken(deleted);
+        String otherToken = jwtService.generateToken(other);
+        authenticatedGet(updated, updatedToken);
+        authenticatedGet(deleted, deletedToken);
+        authenticatedGet(other, otherToken);
+
+        UserRequestDto changes = new UserRequestDto();
+        changes.setUsername("renamed-principal");
+        changes.setEmail("renamed-principal@example.com");
+        changes.setPassword("new-password");
+        userService.updateUser(updated.getId(), changes);
+        userService.deleteUser(deleted.getId());
+
+        assertThat(principalCache.get(updatedToken)).isNull();
+        assertThat(principalCache.get(deletedToken)).isNull();
+        assertThat(principalCache.get(otherToken)).isNotNull();
+    }
+
+    @Test
+    void principalsCachedBeforeTheCommitAreEvictedAgainAfterIt() {
+        User user = createUser("racing-principal");
+        String token = jwtService.generateToken(user);
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            principalCache.evictUser(user.getId());
+            // A concurrent request that read the user before the commit caches it again.
+            principalCache.put(token, JwtPrincipal.of(user), expiration);
+            assertThat(principalCache.get(token)).isNotNull();
+        });
+
+        assertThat(principalCache.get(token)).isNull();
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+    }
+
+    private void authenticatedGet(User user, String token) throws Exception {
+        mockMvc.perform(get("/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,120 @@
+package com.restapi.demo.stats;
+
+import com.restapi.demo.dto.todo.TodoBatchUpdateDto;
+import com.restapi.demo.dto.todo.TodoFilterDto;
+import com.restapi.demo.dto.todo.TodoRequestDto;
+import com.restapi.demo.dto.todo.TodoResponseDto;
+import com.restapi.demo.dto.todo.TodoStatsResponseDto;
+import com.restapi.demo.exception.PreconditionFailedException;
+import com.restapi.demo.partition.PartitionedTodoReader;
+import com.restapi.demo.partition.TodoPartitions;
+import com.restapi.demo.service.TodoBatchService;
+import com.restapi.demo.service.TodoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs with todos in 2 partitions (the seed todos are resharded at startup) and page totals taken from the stats.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:todo-stats",
+        "application.todos.partitions.count=2",
+        "application.todos.partitions.reshard-from=1",
+        "application.todos.stats.page-totals=true"
+})
+class TodoStatsTests {
+
+    private static final int PARTITIONS = 2;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoBatchService todoBatchService;
+
+    @Autowired
+    private TodoStatsReconciler reconciler;
+
+    @Autowired
+    private PartitionedTodoReader partitionedTodoReader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyKindOfWriteKeepsTheStatsInStep() {
+        Long userId = 2L;
+        assertStatsMatchTodos(userId);
+
+        TodoResponseDto first = todoService.createTodo(request("First", null, userId));
+        Long second = todoBatchService.createTodos(List.of(request("Second", true, userId), request("Third", false, userId)))
+                .getResults().get(0).getId();
+        assertStatsMatchTodos(userId);
+
+        TodoResponseDto completed = todoService.updateTodo(first.getId(), request(null, true, null));
+        todoService.updateTodoIfMatch(second, List.of(0L), request(null, false, null));
+        assertStatsMatchTodos(userId);
+
+        TodoBatchUpdateDto reopen = new TodoBatchUpdateDto();
+        reopen.setId(first.getId());
+        reopen.setCompleted(false);
+        todoBatchService.updateTodos(List.of(reopen));
+        assertStatsMatchTodos(userId);
+
+        // Stale If-Match writes fail without touching the stats.
+        assertThatThrownBy(() -> todoService.updateTodoIfMatch(first.getId(), List.of(0L), request(null, true, null)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> todoService.deleteTodoIfMatch(first.getId(), List.of(0L)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertStatsMatchTodos(userId);
+
+        todoService.deleteTodoIfMatch(first.getId(), List.of(completed.getVersion() + 1));
+        todoBatchService.deleteTodos(List.of(second, 999_999L));
+        todoService.deleteTodo(4L);
+        assertStatsMatchTodos(userId);
+        assertThat(todoService.getTodoStatsByUser(userId).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void theReconcilerCorrectsDriftedStats() {
+        jdbcTemplate.update("UPDATE todo_stats SET total = 99 WHERE user_id = 1");
+        Long userId = todoService.createTodo(request("Unrelated", false, 1L)).getUserId();
+        // The page total comes from the stats, drift included.
+        assertThat(partitionedTodoReader.findAllProjected(TodoFilterDto.builder().userId(userId).build(), PageRequest.of(0, 1))
+                .getTotalElements()).isEqualTo(100);
+
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+
+        assertStatsMatchTodos(userId);
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    private void assertStatsMatchTodos(Long userId) {
+        String table = TodoPartitions.tableName(PARTITIONS, TodoPartitions.partitionOf(userId, PARTITIONS));
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, userId);
+        long completed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE user_id = ? AND completed", Long.class, userId);
+
+        TodoStatsResponseDto stats = todoService.getTodoStatsByUser(userId);
+
+        assertThat(stats.getTotal()).isEqualTo(total);
+        assertThat(stats.getCompleted()).isEqualTo(completed);
+        assertThat(stats.getOpen()).isEqualTo(total - completed);
+    }
+
+    private static TodoRequestDto request(String title, Boolean completed, Long userId) {
+        TodoRequestDto request = new TodoRequestDto();
+        request.setTitle(title);
+        request.setCompleted(completed);
+        request.setUserId(userId);
+        return request;
+    }
+}